@@ -0,0 +1,47 @@
+package org.sbpo2025.challenge;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Instance files used by the benchmarks, by name:
+ * <ul>
+ *     <li>{@code a/instance_0005}: a file of the dataset directory ({@code -Dbench.datasets}, {@code datasets} by
+ *     default);</li>
+ *     <li>{@code synthetic-ORDERSxAISLESxITEMS}: an {@link InstanceGenerator} instance with that shape, written once
+ *     per JVM to a temporary file. The seed is fixed, so every fork sees the same instance.</li>
+ * </ul>
+ */
+final class BenchInstances {
+
+    private static final long SEED = 2025;
+    private static final Map<String, Path> sinteticas = new HashMap<>();
+
+    private BenchInstances() {
+    }
+
+    static synchronized Path archivo(String nombre) {
+        if (!nombre.startsWith("synthetic-")) {
+            return Path.of(System.getProperty("bench.datasets", "datasets"), nombre + ".txt");
+        }
+        return sinteticas.computeIfAbsent(nombre, n -> {
+            String forma = n.substring("synthetic-".length());
+            try {
+                Path archivo = Files.createTempFile(n, ".txt");
+                archivo.toFile().deleteOnExit();
+                InstanceGenerator.ofShape(forma).setSeed(SEED).write(archivo);
+                return archivo;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    static ChallengeInstance cargar(String nombre) throws IOException {
+        return InstanceParser.parse(archivo(nombre));
+    }
+}
@@ -0,0 +1,58 @@
+package org.sbpo2025.challenge;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Throughput of {@code isSolutionFeasible} and {@code computeObjectiveFunction} on the wave of the heuristic.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class EvaluatorBenchmark {
+
+    private static final long PRESUPUESTO_HEURISTICA_MS = 500;
+
+    @Param({"a/instance_0001", "a/instance_0005", "a/instance_0014", "synthetic-20000x1000x5000"})
+    public String instancia;
+
+    private ChallengeSolver solver;
+    private ChallengeSolution solucion;
+
+    @Setup
+    public void setup() throws IOException {
+        ChallengeInstance instance = BenchInstances.cargar(instancia);
+        solver = new ChallengeSolver(instance);
+        boolean[][] wave = new HeuristicSolver(instance, 2025).resolver(PRESUPUESTO_HEURISTICA_MS);
+        if (wave == null) {
+            throw new IllegalStateException("No feasible wave for " + instancia);
+        }
+        solucion = new ChallengeSolution(indices(wave[0]), indices(wave[1]));
+    }
+
+    private static Set<Integer> indices(boolean[] x) {
+        return IntStream.range(0, x.length).filter(k -> x[k]).boxed().collect(Collectors.toSet());
+    }
+
+    @Benchmark
+    public boolean isSolutionFeasible() {
+        return solver.isSolutionFeasible(solucion);
+    }
+
+    @Benchmark
+    public double computeObjectiveFunction() {
+        return solver.computeObjectiveFunction(solucion);
+    }
+}
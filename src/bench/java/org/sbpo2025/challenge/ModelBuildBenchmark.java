@@ -0,0 +1,131 @@
+package org.sbpo2025.challenge;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import ilog.concert.IloException;
+import ilog.concert.IloIntVar;
+import ilog.concert.IloLinearIntExpr;
+import ilog.concert.IloLinearNumExpr;
+import ilog.concert.IloNumVar;
+import ilog.cplex.IloCplex;
+
+/**
+ * Time to build the models of both formulations, up to the objective; nothing is solved. With {@code -prof gc} the
+ * allocation per build is the memory side.
+ * <p>
+ * {@link #porExpresiones()} is the former build, one named linear expression per stock row, kept as the baseline;
+ * {@link #pasillosFijos()} lays out the {@link WaveMatrix} and loads it, and {@link #matrizCompartida()} only loads
+ * one built in the setup, which is what every model after the first one of a run pays.
+ * <p>
+ * Needs {@code cplex.jar} and the CPLEX native library on {@code java.library.path}, but no license: the size limits
+ * of the community edition only apply to {@code solve}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ModelBuildBenchmark {
+
+    @Param({"a/instance_0001", "a/instance_0005", "a/instance_0014", "synthetic-20000x1000x5000"})
+    public String instancia;
+
+    private ChallengeInstance instance;
+    private WaveMatrix base;
+
+    @Setup
+    public void setup() throws IOException {
+        instance = BenchInstances.cargar(instancia);
+        base = new WaveMatrix(instance, null, false);
+    }
+
+    /**
+     * Model of {@code planteoPasillosFijos}.
+     */
+    @Benchmark
+    public int pasillosFijos() throws IloException {
+        IloCplex prob = new IloCplex();
+        try {
+            WaveModel modelo = WaveModel.build(prob, new WaveMatrix(instance, null, false));
+            prob.addMaximize(modelo.suma);
+            return prob.getNrows();
+        } finally {
+            prob.end();
+        }
+    }
+
+    @Benchmark
+    public int matrizCompartida() throws IloException {
+        IloCplex prob = new IloCplex();
+        try {
+            WaveModel modelo = WaveModel.build(prob, base);
+            prob.addMaximize(modelo.suma);
+            return prob.getNrows();
+        } finally {
+            prob.end();
+        }
+    }
+
+    /**
+     * Model of {@code planteo_busqueda_binaria}, with the stock slack.
+     */
+    @Benchmark
+    public int busquedaBinaria() throws IloException {
+        IloCplex prob = new IloCplex();
+        try {
+            IloNumVar z = prob.numVar(0, instance.waveSizeUB(), "z");
+            WaveModel modelo = WaveModel.buildWithSlack(prob, base, z);
+            prob.addMinimize(z);
+            prob.addGe(modelo.sumaDeA, 1);
+            return prob.getNrows();
+        } finally {
+            prob.end();
+        }
+    }
+
+    /**
+     * The fixed-aisles model as it was built before {@link WaveMatrix}.
+     */
+    @Benchmark
+    public int porExpresiones() throws IloException {
+        IloCplex prob = new IloCplex();
+        try {
+            IloIntVar[] listaW = new IloIntVar[instance.nOrders()];
+            for (int o = 0; o < listaW.length; o++) {
+                listaW[o] = prob.boolVar(String.format("W_%d", o));
+            }
+            IloIntVar[] listaA = new IloIntVar[instance.nAisles()];
+            for (int a = 0; a < listaA.length; a++) {
+                listaA[a] = prob.boolVar(String.format("A_%d", a));
+            }
+            IloLinearIntExpr suma = prob.linearIntExpr();
+            for (int o = 0; o < listaW.length; o++) {
+                suma.addTerm(instance.orderUnits(o), listaW[o]);
+            }
+            prob.addLe(suma, instance.waveSizeUB());
+            prob.addGe(suma, instance.waveSizeLB());
+            for (int i = 0; i < instance.nItems(); i++) {
+                IloLinearNumExpr fila = prob.linearNumExpr();
+                for (int k = instance.itemOrdersStart(i); k < instance.itemOrdersEnd(i); k++) {
+                    fila.addTerm(instance.itemOrderQuantity(k), listaW[instance.itemOrder(k)]);
+                }
+                for (int k = instance.itemAislesStart(i); k < instance.itemAislesEnd(i); k++) {
+                    fila.addTerm(-instance.itemAisleQuantity(k), listaA[instance.itemAisle(k)]);
+                }
+                prob.addLe(fila, 0);
+            }
+            prob.addMaximize(suma);
+            return prob.getNrows();
+        } finally {
+            prob.end();
+        }
+    }
+}
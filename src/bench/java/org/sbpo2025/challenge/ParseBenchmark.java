@@ -0,0 +1,38 @@
+package org.sbpo2025.challenge;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Time to read an instance file into a {@link ChallengeInstance}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ParseBenchmark {
+
+    @Param({"a/instance_0001", "a/instance_0005", "a/instance_0014", "synthetic-20000x1000x5000", "synthetic-100000x5000x20000"})
+    public String instancia;
+
+    private Path archivo;
+
+    @Setup
+    public void setup() {
+        archivo = BenchInstances.archivo(instancia);
+    }
+
+    @Benchmark
+    public ChallengeInstance parse() throws IOException {
+        return InstanceParser.parse(archivo);
+    }
+}
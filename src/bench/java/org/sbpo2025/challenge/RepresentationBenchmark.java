@@ -0,0 +1,128 @@
+package org.sbpo2025.challenge;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * {@link ChallengeInstance} against the former {@code List<Map<Integer, Integer>>} representation: parse time, the
+ * allocation of a parse ({@code gc.alloc.rate.norm} of the GC profiler), and one pass over every stock-row
+ * coefficient, the loop the model builders run. The heap each representation retains is printed at setup.
+ * <p>
+ * {@code *Mapas} reproduce the former {@code Challenge.readInput} and its per-item {@code getOrDefault} scan.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RepresentationBenchmark {
+
+    @Param({"a/instance_0005", "a/instance_0006", "a/instance_0014"})
+    public String instancia;
+
+    private Path archivo;
+    private Mapas mapas;
+    private ChallengeInstance instance;
+
+    /**
+     * An instance as the former reader kept it.
+     */
+    record Mapas(List<Map<Integer, Integer>> orders, List<Map<Integer, Integer>> aisles, int nItems) {
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        archivo = BenchInstances.archivo(instancia);
+        long antes = usado();
+        mapas = leerMapas(archivo);
+        long conMapas = usado();
+        instance = InstanceParser.parse(archivo);
+        long conArreglos = usado();
+        System.out.printf("%n%s retenido: mapas %d KB, arreglos %d KB%n", instancia,
+                (conMapas - antes) >> 10, (conArreglos - conMapas) >> 10);
+    }
+
+    private static long usado() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int k = 0; k < 3; k++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    @Benchmark
+    public Mapas parseMapas() throws IOException {
+        return leerMapas(archivo);
+    }
+
+    @Benchmark
+    public ChallengeInstance parseArreglos() throws IOException {
+        return InstanceParser.parse(archivo);
+    }
+
+    @Benchmark
+    public long escaneoMapas() {
+        long total = 0;
+        for (int i = 0; i < mapas.nItems(); i++) {
+            for (Map<Integer, Integer> orden : mapas.orders()) {
+                total += orden.getOrDefault(i, 0);
+            }
+            for (Map<Integer, Integer> pasillo : mapas.aisles()) {
+                total -= pasillo.getOrDefault(i, 0);
+            }
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long escaneoArreglos() {
+        long total = 0;
+        for (int i = 0; i < instance.nItems(); i++) {
+            for (int k = instance.itemOrdersStart(i); k < instance.itemOrdersEnd(i); k++) {
+                total += instance.itemOrderQuantity(k);
+            }
+            for (int k = instance.itemAislesStart(i); k < instance.itemAislesEnd(i); k++) {
+                total -= instance.itemAisleQuantity(k);
+            }
+        }
+        return total;
+    }
+
+    static Mapas leerMapas(Path archivo) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(archivo)) {
+            String[] primera = reader.readLine().split(" ");
+            int nOrders = Integer.parseInt(primera[0]);
+            int nItems = Integer.parseInt(primera[1]);
+            int nAisles = Integer.parseInt(primera[2]);
+            return new Mapas(leerFilas(reader, nOrders), leerFilas(reader, nAisles), nItems);
+        }
+    }
+
+    private static List<Map<Integer, Integer>> leerFilas(BufferedReader reader, int nFilas) throws IOException {
+        List<Map<Integer, Integer>> filas = new ArrayList<>(nFilas);
+        for (int f = 0; f < nFilas; f++) {
+            String[] linea = reader.readLine().split(" ");
+            int n = Integer.parseInt(linea[0]);
+            Map<Integer, Integer> fila = new HashMap<>();
+            for (int k = 0; k < n; k++) {
+                fila.put(Integer.parseInt(linea[2 * k + 1]), Integer.parseInt(linea[2 * k + 2]));
+            }
+            filas.add(fila);
+        }
+        return filas;
+    }
+}
@@ -0,0 +1,149 @@
+package org.sbpo2025.challenge;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import org.apache.commons.lang3.time.StopWatch;
+
+/**
+ * Runs the solver on {@link InstanceGenerator} instances of growing size and reports, for every phase, its time and
+ * the peak heap used while it ran.
+ * <p>
+ * Phases are generating the file, parsing it, presolve, the heuristic on the presolved instance, the whole solver
+ * (which repeats those two; its own breakdown goes to {@code telemetry.jsonl}) and writing the output. The heap is
+ * collected before each phase, so the peak is what the phase needs on top of what is kept from earlier ones; it is
+ * the sum of the per-pool peaks, a slight overestimate. Results go to {@code scaling.tsv} and to a bar chart per
+ * phase on the console. Generated instances are deleted after use: the seed reproduces them.
+ * <pre>
+ * ScalingSuite &lt;outputDirectory&gt; [--shapes 20000x1000x5000,40000x2000x10000] [--skew S] [solver options]
+ * </pre>
+ * Solver options are those of {@code Challenge}; the time limit defaults to 60 s per instance.
+ */
+public final class ScalingSuite {
+
+    private static final String FORMAS = "20000x1000x5000,40000x2000x10000,80000x4000x20000,160000x8000x40000,320000x16000x80000";
+    private static final long SEED = 2025;
+    private static final int ANCHO_BARRA = 40;
+
+    private record Medicion(String forma, long entradas, String fase, long ms, long picoMb) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.out.println("Usage: ScalingSuite <outputDirectory> [--shapes ORDERSxAISLESxITEMS,...] [--skew S] "
+                    + SolverOptions.usage());
+            return;
+        }
+        Path salida = Path.of(args[0]);
+        String formas = FORMAS;
+        double skew = 0;
+        List<String> resto = new ArrayList<>(List.of("--time-limit", "60"));
+        for (int k = 1; k < args.length; k++) {
+            switch (args[k]) {
+                case "--shapes" -> formas = args[++k];
+                case "--skew" -> skew = Double.parseDouble(args[++k]);
+                default -> resto.add(args[k]);
+            }
+        }
+        SolverOptions options = SolverOptions.parse(resto.toArray(new String[0]), 0);
+        Files.createDirectories(salida);
+        options.setTelemetryFile(salida.resolve("telemetry.jsonl").toString());
+
+        List<Medicion> mediciones = new ArrayList<>();
+        try (SolverTelemetry telemetria = SolverTelemetry.abrir(options)) {
+            for (String forma : formas.split(",")) {
+                mediciones.addAll(correr(forma, skew, salida, options, telemetria.paraInstancia(forma)));
+            }
+        }
+        escribirTsv(salida.resolve("scaling.tsv"), mediciones);
+        graficar(mediciones);
+    }
+
+    private static List<Medicion> correr(String forma, double skew, Path salida, SolverOptions options,
+                                         SolverTelemetry telemetria) throws Exception {
+        Path archivo = salida.resolve(forma + ".txt");
+        Map<String, long[]> fases = new LinkedHashMap<>();
+        try {
+            long entradas = medir(fases, "generar",
+                    () -> InstanceGenerator.ofShape(forma).setSeed(SEED).setSkew(skew).write(archivo));
+            ChallengeInstance instance = medir(fases, "parse", () -> InstanceParser.parse(archivo));
+            Presolve presolve = medir(fases, "presolve", () -> Presolve.run(instance));
+            medir(fases, "heuristica",
+                    () -> new HeuristicSolver(presolve.reducida(), SEED).resolver(options.getHeuristicMillis()));
+            ChallengeSolver solver = new ChallengeSolver(instance, options, telemetria);
+            ChallengeSolution solucion = medir(fases, "solve", () -> solver.solve(StopWatch.createStarted()));
+            medir(fases, "write", () -> {
+                Challenge.writeOutput(solucion, salida.resolve(forma + ".out.txt").toString());
+                return null;
+            });
+            System.out.println(String.format("%s: %d entradas, objetivo %f, factible %b", forma, entradas,
+                    solucion == null ? 0 : solver.computeObjectiveFunction(solucion),
+                    solucion != null && solver.isSolutionFeasible(solucion)));
+            System.out.println(telemetria.resumen());
+
+            List<Medicion> mediciones = new ArrayList<>();
+            fases.forEach((fase, m) -> mediciones.add(new Medicion(forma, entradas, fase, m[0], m[1])));
+            return mediciones;
+        } finally {
+            Files.deleteIfExists(archivo);
+        }
+    }
+
+    /**
+     * Runs {@code fase} after a collection and records its time and peak heap in MB.
+     */
+    private static <T> T medir(Map<String, long[]> fases, String fase, Callable<T> trabajo) throws Exception {
+        List<MemoryPoolMXBean> heap = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(p -> p.getType() == MemoryType.HEAP && p.isValid()).toList();
+        System.gc();
+        heap.forEach(MemoryPoolMXBean::resetPeakUsage);
+        long inicio = System.nanoTime();
+        T resultado = trabajo.call();
+        long ms = (System.nanoTime() - inicio) / 1_000_000;
+        long pico = heap.stream().mapToLong(p -> p.getPeakUsage().getUsed()).sum();
+        fases.put(fase, new long[]{ms, pico >> 20});
+        return resultado;
+    }
+
+    private static void escribirTsv(Path archivo, List<Medicion> mediciones) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(archivo)) {
+            writer.write("forma\tentradas\tfase\tms\tpico_heap_mb");
+            writer.newLine();
+            for (Medicion m : mediciones) {
+                writer.write(String.format("%s\t%d\t%s\t%d\t%d", m.forma(), m.entradas(), m.fase(), m.ms(), m.picoMb()));
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * One block per phase, one line per size, bars scaled to the largest value of the phase.
+     */
+    private static void graficar(List<Medicion> mediciones) {
+        Map<String, List<Medicion>> porFase = new LinkedHashMap<>();
+        mediciones.forEach(m -> porFase.computeIfAbsent(m.fase(), f -> new ArrayList<>()).add(m));
+        porFase.forEach((fase, filas) -> {
+            long maxMs = Math.max(1, filas.stream().mapToLong(Medicion::ms).max().orElse(1));
+            long maxMb = Math.max(1, filas.stream().mapToLong(Medicion::picoMb).max().orElse(1));
+            System.out.println(fase + " (tiempo | pico de heap)");
+            for (Medicion m : filas) {
+                System.out.println(String.format("  %-22s %8d ms %-" + ANCHO_BARRA + "s %6d MB %s", m.forma(), m.ms(),
+                        barra(m.ms(), maxMs), m.picoMb(), barra(m.picoMb(), maxMb)));
+            }
+        });
+    }
+
+    private static String barra(long valor, long maximo) {
+        return "#".repeat((int) (ANCHO_BARRA * valor / maximo));
+    }
+}
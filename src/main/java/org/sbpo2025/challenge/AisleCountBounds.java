@@ -0,0 +1,95 @@
+package org.sbpo2025.challenge;
+
+import java.util.Arrays;
+
+/**
+ * Upper bound on the units a wave with exactly {@code aPrima} aisles can pick, for every {@code aPrima}.
+ * <p>
+ * An aisle can contribute at most {@code sum_i min(stock_ai, demand_i)} units, where {@code demand_i} is what all
+ * orders together ask of item {@code i}. The units of a wave with {@code aPrima} aisles are then at most the sum of
+ * the {@code aPrima} largest contributions, and at most UB. Dividing by {@code aPrima} bounds the ratio, so the sweep
+ * can skip counts that cannot beat its incumbent and try the promising ones first.
+ */
+final class AisleCountBounds {
+
+    /** Units bound per count, index 0 unused. */
+    private final long[] cota;
+    /** Counts sorted by ratio bound, largest first. */
+    private final int[] orden;
+
+    AisleCountBounds(ChallengeInstance instance) {
+        int nAisles = instance.nAisles();
+        int waveSizeLB = instance.waveSizeLB();
+
+        long[] demanda = new long[instance.nItems()];
+        for (int k = 0; k < instance.orderNonZeros(); k++) {
+            demanda[instance.orderItem(k)] += instance.orderQuantity(k);
+        }
+        long[] aporte = new long[nAisles];
+        for (int a = 0; a < nAisles; a++) {
+            for (int k = instance.aisleStart(a); k < instance.aisleEnd(a); k++) {
+                aporte[a] += Math.min(instance.aisleQuantity(k), demanda[instance.aisleItem(k)]);
+            }
+        }
+        Arrays.sort(aporte);
+
+        // Counts that cannot reach LB get a bound of 0
+        this.cota = new long[nAisles + 1];
+        long suma = 0;
+        for (int aPrima = 1; aPrima <= nAisles; aPrima++) {
+            suma += aporte[nAisles - aPrima];
+            cota[aPrima] = suma < waveSizeLB ? 0 : Math.min(suma, instance.waveSizeUB());
+        }
+
+        // Sort by ratio bound, descending; ties go to the larger count, like the sweep's tie-breaking
+        Integer[] porCota = new Integer[nAisles];
+        for (int aPrima = 1; aPrima <= nAisles; aPrima++) {
+            porCota[aPrima - 1] = aPrima;
+        }
+        Arrays.sort(porCota, (x, y) -> {
+            int c = Long.compare(cota[y] * x, cota[x] * y);
+            return c != 0 ? c : Integer.compare(y, x);
+        });
+        this.orden = new int[nAisles];
+        for (int k = 0; k < nAisles; k++) {
+            orden[k] = porCota[k];
+        }
+    }
+
+    /**
+     * Bound on the ratio of any wave with {@code aPrima} aisles; 0 if no such wave reaches LB.
+     */
+    double ratioMaximo(int aPrima) {
+        return (double) cota[aPrima] / aPrima;
+    }
+
+    /**
+     * Whether a wave with {@code aPrima} aisles could have a ratio above {@code mejor}.
+     */
+    boolean puedeMejorar(int aPrima, double mejor) {
+        return cota[aPrima] > 0 && cota[aPrima] > mejor * aPrima;
+    }
+
+    /**
+     * The {@code k}-th count in order of decreasing ratio bound. Once a count cannot improve, neither can the
+     * following ones.
+     */
+    int conteo(int k) {
+        return orden[k];
+    }
+
+    int cantidad() {
+        return orden.length;
+    }
+
+    /**
+     * Counts from position {@code desde} on that could still beat {@code mejor}.
+     */
+    int restantes(int desde, double mejor) {
+        int n = 0;
+        for (int k = desde; k < orden.length && puedeMejorar(orden[k], mejor); k++) {
+            n++;
+        }
+        return n;
+    }
+}
@@ -0,0 +1,128 @@
+package org.sbpo2025.challenge;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import org.apache.commons.lang3.time.StopWatch;
+
+/**
+ * Solves every instance of a directory in one JVM, so the CPLEX native library is loaded once.
+ * <p>
+ * Instances run on a fixed pool of {@link SolverOptions#getJobs()} workers, each with its own stopwatch and so its
+ * own time budget. Outputs keep the name of their input file, and {@code summary.tsv} in the output directory lists
+ * objective, feasibility and wall time per instance.
+ */
+final class BatchRunner {
+
+    static final String SUMMARY = "summary.tsv";
+
+    private final Path entrada;
+    private final Path salida;
+    private final SolverOptions options;
+    private final SolverTelemetry telemetria;
+
+    BatchRunner(Path entrada, Path salida, SolverOptions options, SolverTelemetry telemetria) {
+        this.entrada = entrada;
+        this.salida = salida;
+        this.options = options;
+        this.telemetria = telemetria;
+    }
+
+    /**
+     * Outcome of one instance. {@code error} is null when the instance was solved.
+     */
+    record Resultado(String instancia, int ordenes, int pasillos, double objetivo, boolean factible, long ms,
+                     String error) {
+    }
+
+    List<Resultado> resolver() throws IOException {
+        if (Files.exists(salida) && Files.isSameFile(entrada, salida)) {
+            throw new IOException("the output directory must differ from the input one: " + salida);
+        }
+        List<Path> instancias;
+        try (Stream<Path> archivos = Files.list(entrada)) {
+            instancias = archivos.filter(p -> p.toString().endsWith(".txt") && Files.isRegularFile(p)).sorted().toList();
+        }
+        Files.createDirectories(salida);
+
+        int jobs = Math.max(1, Math.min(options.getJobs(), instancias.size()));
+        System.out.println(String.format("Batch: %d instancias, %d en paralelo x %d threads",
+                instancias.size(), jobs, options.getThreads()));
+        ExecutorService pool = Executors.newFixedThreadPool(jobs);
+        List<Resultado> resultados = new ArrayList<>();
+        try {
+            List<Future<Resultado>> tareas = new ArrayList<>();
+            for (Path instancia : instancias) {
+                tareas.add(pool.submit(() -> resolver(instancia)));
+            }
+            for (Future<Resultado> tarea : tareas) {
+                resultados.add(tarea.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Batch interrumpido", e);
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+
+        escribirResumen(resultados);
+        return resultados;
+    }
+
+    private Resultado resolver(Path instancia) {
+        // Each instance gets its own budget from the moment a worker picks it up
+        StopWatch stopWatch = StopWatch.createStarted();
+        String nombre = instancia.getFileName().toString();
+        SolverTelemetry eventos = telemetria.paraInstancia(nombre);
+        try {
+            long inicio = System.nanoTime();
+            ChallengeInstance datos = InstanceParser.parse(instancia);
+            eventos.fase("parse", (System.nanoTime() - inicio) / 1_000_000);
+            ChallengeSolver solver = new ChallengeSolver(datos, options, eventos);
+            ChallengeSolution solucion = solver.solve(stopWatch);
+            inicio = System.nanoTime();
+            Challenge.writeOutput(solucion, salida.resolve(nombre).toString());
+            eventos.fase("write", (System.nanoTime() - inicio) / 1_000_000);
+            if (eventos.activa()) {
+                System.out.println(eventos.resumen());
+            }
+            boolean factible = solucion != null && solver.isSolutionFeasible(solucion);
+            return new Resultado(nombre, solucion == null ? 0 : solucion.orders().size(),
+                    solucion == null ? 0 : solucion.aisles().size(),
+                    factible ? solver.computeObjectiveFunction(solucion) : 0, factible, stopWatch.getTime(), null);
+        } catch (Exception | UnsatisfiedLinkError | NoClassDefFoundError e) {
+            System.err.println(String.format("%s: %s", nombre, e));
+            return new Resultado(nombre, 0, 0, 0, false, stopWatch.getTime(), e.toString());
+        }
+    }
+
+    private void escribirResumen(List<Resultado> resultados) throws IOException {
+        StringBuilder tabla = new StringBuilder("instancia\tordenes\tpasillos\tobjetivo\tfactible\tms\terror\n");
+        double total = 0;
+        int factibles = 0;
+        for (Resultado r : resultados) {
+            tabla.append(String.format(Locale.ROOT, "%s\t%d\t%d\t%.4f\t%b\t%d\t%s%n", r.instancia(), r.ordenes(),
+                    r.pasillos(), r.objetivo(), r.factible(), r.ms(), r.error() == null ? "" : r.error()));
+            total += r.objetivo();
+            factibles += r.factible() ? 1 : 0;
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(salida.resolve(SUMMARY))) {
+            writer.write(tabla.toString());
+        }
+        System.out.print(tabla);
+        System.out.println(String.format(Locale.ROOT, "Batch: %d/%d factibles, objetivo total %.4f", factibles,
+                resultados.size(), total));
+    }
+}
@@ -3,71 +3,18 @@ package org.sbpo2025.challenge;
 import ilog.concert.IloException;
 import org.apache.commons.lang3.time.StopWatch;
 
-import java.io.BufferedReader;
 import java.io.BufferedWriter;
-import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 public class Challenge {
 
-    private List<Map<Integer, Integer>> orders;
-    private List<Map<Integer, Integer>> aisles;
-    private int nItems;
-    private int waveSizeLB;
-    private int waveSizeUB;
+    private ChallengeInstance instance;
 
-    public void readInput(String inputFilePath) {
-        try {
-            BufferedReader reader = new BufferedReader(new FileReader(inputFilePath));
-            String line = reader.readLine();
-            String[] firstLine = line.split(" ");
-            int nOrders = Integer.parseInt(firstLine[0]);
-            int nItems = Integer.parseInt(firstLine[1]);
-            int nAisles = Integer.parseInt(firstLine[2]);
-
-            // Initialize orders and aisles arrays
-            orders = new ArrayList<>(nOrders);
-            aisles = new ArrayList<>(nAisles);
-            this.nItems = nItems;
-
-            // Read orders
-            readItemQuantityPairs(reader, nOrders, orders);
-
-            // Read aisles
-            readItemQuantityPairs(reader, nAisles, aisles);
-
-            // Read wave size bounds
-            line = reader.readLine();
-            String[] bounds = line.split(" ");
-            waveSizeLB = Integer.parseInt(bounds[0]);
-            waveSizeUB = Integer.parseInt(bounds[1]);
-
-            reader.close();
-        } catch (IOException e) {
-            System.err.println("Error reading input from " + inputFilePath);
-            e.printStackTrace();
-        }
-    }
-
-    private void readItemQuantityPairs(BufferedReader reader, int nLines, List<Map<Integer, Integer>> orders) throws IOException {
-        String line;
-        for (int orderIndex = 0; orderIndex < nLines; orderIndex++) {
-            line = reader.readLine();
-            String[] orderLine = line.split(" ");
-            int nOrderItems = Integer.parseInt(orderLine[0]);
-            Map<Integer, Integer> orderMap = new HashMap<>();
-            for (int k = 0; k < nOrderItems; k++) {
-                int itemIndex = Integer.parseInt(orderLine[2 * k + 1]);
-                int itemQuantity = Integer.parseInt(orderLine[2 * k + 2]);
-                orderMap.put(itemIndex, itemQuantity);
-            }
-            orders.add(orderMap);
-        }
+    public void readInput(String inputFilePath) throws IOException {
+        instance = InstanceParser.parse(inputFilePath);
     }
 
     public static void writeOutput(ChallengeSolution challengeSolution, String outputFilePath) {
@@ -109,18 +56,54 @@ public class Challenge {
         }
     }
 
-    public static void main(String[] args) throws IloException {
+    public static void main(String[] args) {
         // Start the stopwatch to track the running time
         StopWatch stopWatch = StopWatch.createStarted();
 
-        if (args.length != 2) {
-            System.out.println("Usage: java -jar target/ChallengeSBPO2025-1.0.jar <inputFilePath> <outputFilePath>");
+        if (args.length < 2) {
+            System.out.println("Usage: java -jar target/ChallengeSBPO2025-1.0.jar <inputFilePath> <outputFilePath> "
+                    + SolverOptions.usage());
+            System.out.println("       java -jar target/ChallengeSBPO2025-1.0.jar <inputDirectory> <outputDirectory> "
+                    + SolverOptions.usage());
+            return;
+        }
+        SolverOptions options;
+        try {
+            options = SolverOptions.parse(args, 2);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
             return;
         }
+        try (SolverTelemetry telemetria = SolverTelemetry.abrir(options)) {
+            if (Files.isDirectory(Path.of(args[0]))) {
+                try {
+                    new BatchRunner(Path.of(args[0]), Path.of(args[1]), options, telemetria).resolver();
+                } catch (IOException e) {
+                    System.err.println("Error in batch: " + e.getMessage());
+                    System.exit(1);
+                }
+                return;
+            }
+            solve(args[0], args[1], options, stopWatch, telemetria.paraInstancia(Path.of(args[0]).getFileName().toString()));
+        } catch (IOException e) {
+            System.err.println("Error writing telemetry: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    private static void solve(String input, String output, SolverOptions options, StopWatch stopWatch,
+                              SolverTelemetry telemetria) {
         Challenge challenge = new Challenge();
-        challenge.readInput(args[0]);
-        var challengeSolver = new ChallengeSolver(
-                challenge.orders, challenge.aisles, challenge.nItems, challenge.waveSizeLB, challenge.waveSizeUB);
+        long inicio = System.nanoTime();
+        try {
+            challenge.readInput(input);
+        } catch (IOException e) {
+            System.err.println("Error reading input: " + e.getMessage());
+            System.exit(1);
+        }
+        telemetria.fase("parse", (System.nanoTime() - inicio) / 1_000_000);
+        var challengeSolver = new ChallengeSolver(challenge.instance, options, telemetria);
         ChallengeSolution challengeSolution = null;
         try {
             challengeSolution = challengeSolver.solve(stopWatch);
@@ -128,7 +111,12 @@ public class Challenge {
             System.out.println("error");
         }
 
-        Challenge.writeOutput(challengeSolution, args[1]);
+        inicio = System.nanoTime();
+        Challenge.writeOutput(challengeSolution, output);
+        telemetria.fase("write", (System.nanoTime() - inicio) / 1_000_000);
+        if (telemetria.activa()) {
+            System.out.println(telemetria.resumen());
+        }
     }
 }
 
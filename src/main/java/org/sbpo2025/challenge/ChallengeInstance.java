@@ -0,0 +1,240 @@
+package org.sbpo2025.challenge;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable instance of the wave order picking problem.
+ * <p>
+ * Orders and aisles are stored as compressed sparse rows: the entries of order {@code o} live in
+ * {@code [orderStart(o), orderEnd(o))} and each entry has an item id and a quantity. The same data is also kept
+ * transposed (item -> orders, item -> aisles) so that a stock row can be built without scanning every order and
+ * every aisle.
+ */
+public final class ChallengeInstance {
+
+    private final int nOrders;
+    private final int nItems;
+    private final int nAisles;
+    private final int waveSizeLB;
+    private final int waveSizeUB;
+
+    // Order rows
+    private final int[] orderStart;
+    private final int[] orderItem;
+    private final int[] orderQuantity;
+    private final int[] orderUnits;
+
+    // Aisle rows
+    private final int[] aisleStart;
+    private final int[] aisleItem;
+    private final int[] aisleQuantity;
+
+    // Inverted index: item -> (order, quantity) and item -> (aisle, quantity)
+    private final int[] itemOrderStart;
+    private final int[] itemOrder;
+    private final int[] itemOrderQuantity;
+    private final int[] itemAisleStart;
+    private final int[] itemAisle;
+    private final int[] itemAisleQuantity;
+
+    /**
+     * Builds an instance from CSR arrays. The arrays are owned by the instance afterwards and must not be modified
+     * by the caller. Item ids must be in {@code [0, nItems)} and must not repeat inside a row.
+     */
+    ChallengeInstance(int nItems,
+                      int[] orderStart, int[] orderItem, int[] orderQuantity,
+                      int[] aisleStart, int[] aisleItem, int[] aisleQuantity,
+                      int waveSizeLB, int waveSizeUB) {
+        this.nOrders = orderStart.length - 1;
+        this.nItems = nItems;
+        this.nAisles = aisleStart.length - 1;
+        this.waveSizeLB = waveSizeLB;
+        this.waveSizeUB = waveSizeUB;
+
+        this.orderStart = orderStart;
+        this.orderItem = orderItem;
+        this.orderQuantity = orderQuantity;
+        this.aisleStart = aisleStart;
+        this.aisleItem = aisleItem;
+        this.aisleQuantity = aisleQuantity;
+
+        this.orderUnits = new int[nOrders];
+        for (int o = 0; o < nOrders; o++) {
+            int units = 0;
+            for (int k = orderStart[o]; k < orderStart[o + 1]; k++) {
+                units += orderQuantity[k];
+            }
+            orderUnits[o] = units;
+        }
+
+        this.itemOrderStart = new int[nItems + 1];
+        this.itemOrder = new int[orderItem.length];
+        this.itemOrderQuantity = new int[orderItem.length];
+        transpose(nItems, orderStart, orderItem, orderQuantity, itemOrderStart, itemOrder, itemOrderQuantity);
+
+        this.itemAisleStart = new int[nItems + 1];
+        this.itemAisle = new int[aisleItem.length];
+        this.itemAisleQuantity = new int[aisleItem.length];
+        transpose(nItems, aisleStart, aisleItem, aisleQuantity, itemAisleStart, itemAisle, itemAisleQuantity);
+    }
+
+    /**
+     * Counting-sort transpose of a CSR matrix. Within each item the rows come out in increasing row order.
+     */
+    private static void transpose(int nItems, int[] rowStart, int[] rowItem, int[] rowQuantity,
+                                  int[] colStart, int[] colRow, int[] colQuantity) {
+        for (int item : rowItem) {
+            colStart[item + 1]++;
+        }
+        for (int i = 0; i < nItems; i++) {
+            colStart[i + 1] += colStart[i];
+        }
+        int[] next = new int[nItems];
+        System.arraycopy(colStart, 0, next, 0, nItems);
+        int nRows = rowStart.length - 1;
+        for (int r = 0; r < nRows; r++) {
+            for (int k = rowStart[r]; k < rowStart[r + 1]; k++) {
+                int pos = next[rowItem[k]]++;
+                colRow[pos] = r;
+                colQuantity[pos] = rowQuantity[k];
+            }
+        }
+    }
+
+    /**
+     * Builds an instance from the map representation used by the original framework.
+     */
+    public static ChallengeInstance fromMaps(List<Map<Integer, Integer>> orders, List<Map<Integer, Integer>> aisles,
+                                             int nItems, int waveSizeLB, int waveSizeUB) {
+        int[][] orderRows = toRows(orders);
+        int[][] aisleRows = toRows(aisles);
+        return new ChallengeInstance(nItems,
+                orderRows[0], orderRows[1], orderRows[2],
+                aisleRows[0], aisleRows[1], aisleRows[2],
+                waveSizeLB, waveSizeUB);
+    }
+
+    private static int[][] toRows(List<Map<Integer, Integer>> rows) {
+        int[] start = new int[rows.size() + 1];
+        for (int r = 0; r < rows.size(); r++) {
+            start[r + 1] = start[r] + rows.get(r).size();
+        }
+        int[] item = new int[start[rows.size()]];
+        int[] quantity = new int[start[rows.size()]];
+        int k = 0;
+        for (Map<Integer, Integer> row : rows) {
+            for (Map.Entry<Integer, Integer> entry : row.entrySet()) {
+                item[k] = entry.getKey();
+                quantity[k] = entry.getValue();
+                k++;
+            }
+        }
+        return new int[][]{start, item, quantity};
+    }
+
+    public int nOrders() {
+        return nOrders;
+    }
+
+    public int nItems() {
+        return nItems;
+    }
+
+    public int nAisles() {
+        return nAisles;
+    }
+
+    public int waveSizeLB() {
+        return waveSizeLB;
+    }
+
+    public int waveSizeUB() {
+        return waveSizeUB;
+    }
+
+    public int orderStart(int order) {
+        return orderStart[order];
+    }
+
+    public int orderEnd(int order) {
+        return orderStart[order + 1];
+    }
+
+    public int orderItem(int k) {
+        return orderItem[k];
+    }
+
+    public int orderQuantity(int k) {
+        return orderQuantity[k];
+    }
+
+    /**
+     * Total units requested by the order (sum of its quantities).
+     */
+    public int orderUnits(int order) {
+        return orderUnits[order];
+    }
+
+    public int aisleStart(int aisle) {
+        return aisleStart[aisle];
+    }
+
+    public int aisleEnd(int aisle) {
+        return aisleStart[aisle + 1];
+    }
+
+    public int aisleItem(int k) {
+        return aisleItem[k];
+    }
+
+    public int aisleQuantity(int k) {
+        return aisleQuantity[k];
+    }
+
+    public int itemOrdersStart(int item) {
+        return itemOrderStart[item];
+    }
+
+    public int itemOrdersEnd(int item) {
+        return itemOrderStart[item + 1];
+    }
+
+    public int itemOrder(int k) {
+        return itemOrder[k];
+    }
+
+    public int itemOrderQuantity(int k) {
+        return itemOrderQuantity[k];
+    }
+
+    public int itemAislesStart(int item) {
+        return itemAisleStart[item];
+    }
+
+    public int itemAislesEnd(int item) {
+        return itemAisleStart[item + 1];
+    }
+
+    public int itemAisle(int k) {
+        return itemAisle[k];
+    }
+
+    public int itemAisleQuantity(int k) {
+        return itemAisleQuantity[k];
+    }
+
+    /**
+     * Number of (order, item) entries.
+     */
+    public int orderNonZeros() {
+        return orderItem.length;
+    }
+
+    /**
+     * Number of (aisle, item) entries.
+     */
+    public int aisleNonZeros() {
+        return aisleItem.length;
+    }
+}
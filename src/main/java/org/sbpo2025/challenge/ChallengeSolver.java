@@ -1,13 +1,10 @@
 package org.sbpo2025.challenge;
 
-import java.util.ArrayList;
+import java.io.IOException;
 import java.util.Arrays;
-import java.util.Collections;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -15,317 +12,533 @@ import org.apache.commons.lang3.time.StopWatch;
 
 import ilog.concert.IloConstraint;
 import ilog.concert.IloException;
-import ilog.concert.IloIntVar;
 import ilog.concert.IloLinearIntExpr;
-import ilog.concert.IloLinearNumExpr;
 import ilog.concert.IloNumVar;
 import ilog.cplex.IloCplex;
 
 public class ChallengeSolver {
-    private final long MAX_RUNTIME = 1000 * 60 * 10; // milliseconds; 10 minutes
-    private final long MAX_REMAINING_SECONDS_TO_STOP = 10; // seconds; 1 minute
     private final double EPSILON = .50;
     private final double MINUS_INF = Double.MIN_VALUE;
     private final double TOLERANCE = Math.exp(-6);
+    private final long SEED = 2025;
 
-    protected List<Map<Integer, Integer>> orders;
-    protected List<Map<Integer, Integer>> aisles;
+    protected ChallengeInstance instance;
+    protected SolverOptions options;
     protected int nItems;
     protected int waveSizeLB;
     protected int waveSizeUB;
+    /** Groups of identical aisles when solving a presolved instance, null otherwise. */
+    private final int[] gruposPasillos;
+    private final SolverTelemetry telemetria;
+    /**
+     * Whether the last search finished, as recorded in the {@link SolutionCache}: set by the formulations, only when
+     * every solve they relied on ended Optimal or Infeasible and nothing was left to try.
+     */
+    private boolean busquedaCompleta;
+
+    public ChallengeSolver(ChallengeInstance instance) {
+        this(instance, new SolverOptions());
+    }
+
+    public ChallengeSolver(ChallengeInstance instance, SolverOptions options) {
+        this(instance, options, SolverTelemetry.DESACTIVADA, null);
+    }
+
+    ChallengeSolver(ChallengeInstance instance, SolverOptions options, SolverTelemetry telemetria) {
+        this(instance, options, telemetria, null);
+    }
+
+    private ChallengeSolver(ChallengeInstance instance, SolverOptions options, SolverTelemetry telemetria, int[] gruposPasillos) {
+        this.instance = instance;
+        this.options = options;
+        this.telemetria = telemetria;
+        this.gruposPasillos = gruposPasillos;
+        this.nItems = instance.nItems();
+        this.waveSizeLB = instance.waveSizeLB();
+        this.waveSizeUB = instance.waveSizeUB();
+    }
 
     public ChallengeSolver(
             List<Map<Integer, Integer>> orders, List<Map<Integer, Integer>> aisles, int nItems, int waveSizeLB, int waveSizeUB) throws IloException {
-        this.orders = orders;
-        this.aisles = aisles;
-        this.nItems = nItems;
-        this.waveSizeLB = waveSizeLB;
-        this.waveSizeUB = waveSizeUB;
+        this(ChallengeInstance.fromMaps(orders, aisles, nItems, waveSizeLB, waveSizeUB));
     }
 
     public ChallengeSolution solve(StopWatch stopWatch) throws IloException {
+        TimeBudget presupuesto = new TimeBudget(stopWatch, options.getTimeLimitMillis());
+        // A cached answer of a finished run is returned as is; one of a run that timed out is a starting wave
+        SolutionCache cache = SolutionCache.abrir(options);
+        String clave = cache.activa() ? SolutionCache.clave(this.instance) : null;
+        ChallengeSolution inicioCache = null;
+        if (clave != null) {
+            SolutionCache.Entrada entrada = cache.buscar(clave);
+            if (entrada != null && enRango(entrada.solucion()) && this.isSolutionFeasible(entrada.solucion())) {
+                telemetria.mensaje("Cache: solucion %s con ratio %f", entrada.completa() ? "completa" : "parcial",
+                        this.computeObjectiveFunction(entrada.solucion()));
+                if (entrada.completa()) {
+                    return entrada.solucion();
+                }
+                inicioCache = entrada.solucion();
+            }
+        }
+
+        ChallengeSolution solucion;
+        boolean completa;
+        if (!options.isPresolve()) {
+            solucion = resolverInstancia(presupuesto, inicioCache);
+            completa = busquedaCompleta;
+        } else {
+            // Everything runs on the reduced instance; the answer comes back with the original indices
+            long inicio = System.nanoTime();
+            Presolve presolve = Presolve.run(this.instance);
+            telemetria.fase("presolve", (System.nanoTime() - inicio) / 1_000_000);
+            telemetria.mensaje("%s", presolve.resumen());
+            ChallengeSolver reducido = new ChallengeSolver(presolve.reducida(), options, telemetria, presolve.gruposPasillos());
+            solucion = presolve.aOriginal(reducido.resolverInstancia(presupuesto, presolve.aReducida(inicioCache)));
+            solucion = solucion == null || !this.isSolutionFeasible(solucion) ? null : solucion;
+            completa = reducido.busquedaCompleta;
+        }
+        if (clave != null && solucion != null) {
+            try {
+                cache.guardar(clave, solucion, completa);
+            } catch (IOException e) {
+                telemetria.mensaje("Cache: no se pudo guardar (%s)", e.getMessage());
+            }
+        }
+        return solucion;
+    }
+
+    /**
+     * A model of this instance that stays alive across backlog changes, see {@link IncrementalSolver}.
+     */
+    public IncrementalSolver incremental() throws IloException {
+        return new IncrementalSolver(this.instance, options, telemetria);
+    }
+
+    private boolean enRango(ChallengeSolution solucion) {
+        return solucion.orders().stream().allMatch(o -> o >= 0 && o < instance.nOrders())
+                && solucion.aisles().stream().allMatch(a -> a >= 0 && a < instance.nAisles());
+    }
+
+    /**
+     * @param inicioCache wave of an unfinished cached run, used instead of the heuristic one when better; may be null
+     */
+    private ChallengeSolution resolverInstancia(TimeBudget presupuesto, ChallengeSolution inicioCache) throws IloException {
+        busquedaCompleta = false;
         // DEFINICIÓN DEL MODELO Y SOLVER
         //Decidimos qué modelo vamos a usar (el que tenga que resolver menos PL
-        int cantPasillos = this.aisles.size();
+        int cantPasillos = this.instance.nAisles();
         double epsilon = 1 / (double) cantPasillos;
         double rango_k = (Math.log(this.waveSizeUB - ((double) this.waveSizeLB / cantPasillos)) - Math.log(epsilon)) / (Math.log(2.0));
-        List<Boolean> dictWSol = List.of();
-        List<Boolean> dictASol = List.of();
-        IloCplex prob = new IloCplex();
-        prob.setOut(null);
   
-        System.out.println(String.format("Cantidad de pasillos: %d", cantPasillos));
-        System.out.println(String.format("LB: %d", this.waveSizeLB));
-        System.out.println(String.format("UB: %d", this.waveSizeUB));
-
-        if (cantPasillos <= rango_k) {
-            System.out.println("Eligio pasillos");
-            List<List<Boolean>> solucionActual = planteoPasillosFijos(prob);
-            dictWSol = solucionActual.get(0);
-            dictASol = solucionActual.get(1);
-        } else {
-            System.out.println("Eligio binaria");
-            List<List<Boolean>> solucionActual = planteo_busqueda_binaria(prob, epsilon, stopWatch);
-            dictWSol = solucionActual.get(0);
-            dictASol = solucionActual.get(1);
+        telemetria.mensaje("Cantidad de pasillos: %d, LB: %d, UB: %d", cantPasillos, this.waveSizeLB, this.waveSizeUB);
+
+        // Heuristic wave first: starting point for the MIP and answer when CPLEX does not give a better one
+        HeuristicSolver heuristica = new HeuristicSolver(this.instance, SEED);
+        long presupuestoHeuristica = Math.min(options.getHeuristicMillis(), presupuesto.restanteMs() / 2);
+        long inicioHeuristica = System.nanoTime();
+        boolean[][] inicial = heuristica.resolver(presupuestoHeuristica);
+        telemetria.fase("heuristica", (System.nanoTime() - inicioHeuristica) / 1_000_000);
+        ChallengeSolution solucionHeuristica = inicial == null ? null : aSolucion(WaveModel.comoListas(inicial));
+        telemetria.mensaje("Heuristica: ratio %f", heuristica.ratio());
+        if (inicioCache != null && this.isSolutionFeasible(inicioCache)
+                && (solucionHeuristica == null || this.computeObjectiveFunction(inicioCache) > heuristica.ratio())) {
+            inicial = aArreglos(inicioCache);
+            solucionHeuristica = inicioCache;
         }
-        List<Boolean> finalDictWSol = dictWSol;
-        List<Boolean> finalDictASol = dictASol;
-        Set<Integer> finalOrder = IntStream.range(0, orders.size()).filter(finalDictWSol::get).boxed().collect(Collectors.toSet());
-        Set<Integer> finalAisle = IntStream.range(0, aisles.size()).filter(finalDictASol::get).boxed().collect(Collectors.toSet());
-        return new ChallengeSolution(finalOrder, finalAisle);
+
+        SolverMode mode = options.getMode();
+        if (mode == SolverMode.HEURISTICA) {
+            return solucionHeuristica;
+        }
+        if (mode == SolverMode.AUTO) {
+            mode = cantPasillos <= rango_k ? SolverMode.PASILLOS_FIJOS : SolverMode.BUSQUEDA_BINARIA;
+        }
+        ChallengeSolution solucionMip = null;
+        long inicioBusqueda = System.nanoTime();
+        try {
+            solucionMip = aSolucion(resolverMip(mode, epsilon, inicial, presupuesto));
+        } catch (IloException | RuntimeException | UnsatisfiedLinkError | NoClassDefFoundError e) {
+            // stdout is left for the solution output; the event also goes to the telemetry file
+            System.err.println("CPLEX no disponible o fallo, se usa la heuristica: " + e);
+            telemetria.mensaje("CPLEX no disponible o fallo, se usa la heuristica: %s", e);
+        }
+        telemetria.fase("search", (System.nanoTime() - inicioBusqueda) / 1_000_000);
+        return mejorSolucion(solucionMip, solucionHeuristica);
     }
 
-    private List<List<Boolean>> planteoPasillosFijos(IloCplex prob) throws IloException {
-        List<List<Boolean>> resPasillos = new ArrayList<>();
+    private List<List<Boolean>> resolverMip(SolverMode mode, double epsilon, boolean[][] inicial, TimeBudget presupuesto) throws IloException {
+        // Columns and stock rows are laid out once and loaded in bulk by every model of the run
+        // Lazily, only the rows of the items of the starting wave are loaded; the rest are separated on demand
+        boolean[] filasIniciales = !options.isLazyStock() ? null
+                : inicial == null ? new boolean[this.instance.nItems()] : WaveMatrix.itemsDe(this.instance, inicial[0]);
+        WaveMatrix base = new WaveMatrix(this.instance, gruposPasillos, options.isModelNames(), filasIniciales);
+        telemetria.fase("matriz", base.buildMs);
+        telemetria.mensaje("Matriz base: %d filas (%d cargadas), %d columnas, %d no ceros, %d KB, %d ms", this.nItems,
+                base.nFilasIniciales(), this.instance.nOrders() + base.nGrupos(), base.noCeros, base.bytes() / 1024,
+                base.buildMs);
+        if (mode == SolverMode.PASILLOS_PARALELO) {
+            telemetria.mensaje("Eligio pasillos en paralelo");
+            SharedIncumbent mejor = new SharedIncumbent();
+            if (inicial != null) {
+                mejor.ofrecer(this.computeObjectiveFunction(aSolucion(WaveModel.comoListas(inicial))), inicial);
+            }
+            List<List<Boolean>> res = new ParallelAisleSweep(this.instance, base, options.getWorkers(), options.getThreads(), mejor, presupuesto, telemetria).resolver();
+            // The sweep marks the ratio optimal only when every count was solved or pruned
+            busquedaCompleta = mejor.optima();
+            return res;
+        }
+        if (mode == SolverMode.PORTAFOLIO) {
+            telemetria.mensaje("Eligio portafolio");
+            return portafolio(base, epsilon, inicial, presupuesto);
+        }
+        if (mode == SolverMode.LNS && inicial != null) {
+            telemetria.mensaje("Eligio LNS");
+            SharedIncumbent mejor = new SharedIncumbent();
+            mejor.ofrecer(this.computeObjectiveFunction(aSolucion(WaveModel.comoListas(inicial))), inicial);
+            // Neighborhoods prove nothing about the whole instance, so LNS never finishes the search
+            return new LargeNeighborhoodSearch(this.instance, base, options.getWorkers(), options.getThreads(),
+                    mejor, presupuesto, telemetria, SEED).resolver();
+        }
+        IloCplex prob = new IloCplex();
+        try {
+            prob.setOut(telemetria.salidaCplex());
+            prob.setParam(IloCplex.Param.Threads, options.getThreads());
+            presupuesto.vigilar(prob);
+            switch (mode) {
+                case PASILLOS_FIJOS -> {
+                    telemetria.mensaje("Eligio pasillos");
+                    return planteoPasillosFijos(prob, base, inicial, presupuesto);
+                }
+                case DINKELBACH -> {
+                    telemetria.mensaje("Eligio Dinkelbach");
+                    return planteoDinkelbach(prob, base, inicial, presupuesto, new SharedIncumbent());
+                }
+                default -> {
+                    // Also LNS without a starting wave
+                    telemetria.mensaje("Eligio binaria");
+                    return planteo_busqueda_binaria(prob, base, epsilon, inicial, presupuesto, new SharedIncumbent());
+                }
+            }
+        } finally {
+            presupuesto.soltar(prob);
+            prob.end();
+        }
+    }
 
-        if (this.orders.isEmpty() || this.aisles.isEmpty()) {
-            throw new IloException("Error: No hay órdenes o pasillos disponibles.");
+    /*
+     * The fixed-aisle sweep, Dinkelbach, the binary search and heuristic restarts at the same time instead of the
+     * rango_k choice, see FormulationPortfolio. The heuristic can only stop the others by reaching the bound of
+     * AisleCountBounds; the binary search only tests ratios and proves none optimal.
+     */
+    private List<List<Boolean>> portafolio(WaveMatrix base, double epsilon, boolean[][] inicial, TimeBudget presupuesto) throws IloException {
+        SharedIncumbent mejor = new SharedIncumbent();
+        if (inicial != null) {
+            mejor.ofrecer(this.computeObjectiveFunction(aSolucion(WaveModel.comoListas(inicial))), inicial);
         }
+        // One thread stays with the heuristic, the three MIP searches split the rest
+        int hilos = Math.max(1, (options.getThreads() - 1) / 3);
+        AisleCountBounds cotas = new AisleCountBounds(this.instance);
+        new FormulationPortfolio(this.instance, mejor, presupuesto, telemetria)
+                .agregar("pasillos", false, (vista, propio) ->
+                        new ParallelAisleSweep(this.instance, base, 1, hilos, vista, propio, telemetria).resolver())
+                .agregar("dinkelbach", false, (vista, propio) -> {
+                    IloCplex prob = modeloPropio(propio, hilos);
+                    try {
+                        planteoDinkelbach(prob, base, vista.solucion(), propio, vista);
+                    } finally {
+                        propio.soltar(prob);
+                        prob.end();
+                    }
+                })
+                .agregar("binaria", false, (vista, propio) -> {
+                    IloCplex prob = modeloPropio(propio, hilos);
+                    try {
+                        planteo_busqueda_binaria(prob, base, epsilon, vista.solucion(), propio, vista);
+                    } finally {
+                        propio.soltar(prob);
+                        prob.end();
+                    }
+                })
+                .agregar("heuristica", true, (vista, propio) -> {
+                    HeuristicSolver heuristica = new HeuristicSolver(this.instance, SEED + 1);
+                    while (propio.hayTiempo()) {
+                        boolean[][] ola = heuristica.resolver(Math.min(options.getHeuristicMillis(), propio.restanteMs()));
+                        if (ola != null) {
+                            vista.ofrecer(heuristica.ratio(), ola);
+                        }
+                        if (cotas.cantidad() > 0 && !cotas.puedeMejorar(cotas.conteo(0), vista.ratio())) {
+                            vista.marcarOptima();
+                            break;
+                        }
+                    }
+                })
+                .resolver();
+        // Only a proof by one strategy finishes the search; the formulations it ran set the flag on their own
+        busquedaCompleta = mejor.optima();
+        boolean[][] solucion = mejor.solucion();
+        return solucion == null ? List.of(List.of(), List.of()) : WaveModel.comoListas(solucion);
+    }
 
-        IloIntVar[] listaW1 = new IloIntVar[this.orders.size()];
-        IloIntVar[] listaA1 = new IloIntVar[this.aisles.size()];
+    /*
+     * An empty model with its own threads, watched by presupuesto; the caller lets go of it and ends it.
+     */
+    private IloCplex modeloPropio(TimeBudget presupuesto, int hilos) throws IloException {
+        IloCplex prob = new IloCplex();
+        prob.setOut(telemetria.salidaCplex());
+        presupuesto.vigilar(prob);
+        prob.setParam(IloCplex.Param.Threads, hilos);
+        return prob;
+    }
 
-        //Si la orden pertenece a la wave
-        for (int o = 0; o < this.orders.size(); o++) {
-            listaW1[o] = prob.boolVar(String.format("W_%d", o));
-        }
+    private boolean[][] aArreglos(ChallengeSolution solucion) {
+        boolean[][] res = {new boolean[instance.nOrders()], new boolean[instance.nAisles()]};
+        solucion.orders().forEach(o -> res[0][o] = true);
+        solucion.aisles().forEach(a -> res[1][a] = true);
+        return res;
+    }
 
-        //Si se usa el pasillo a
-        for (int a = 0; a < this.aisles.size(); a++) {
-            listaA1[a] = prob.boolVar(String.format("A_%d", a));
+    private ChallengeSolution aSolucion(List<List<Boolean>> solucionActual) {
+        if (solucionActual == null || solucionActual.get(0).isEmpty()) {
+            return null;
         }
+        List<Boolean> finalDictWSol = solucionActual.get(0);
+        List<Boolean> finalDictASol = solucionActual.get(1);
+        Set<Integer> finalOrder = IntStream.range(0, instance.nOrders()).filter(finalDictWSol::get).boxed().collect(Collectors.toSet());
+        Set<Integer> finalAisle = IntStream.range(0, instance.nAisles()).filter(finalDictASol::get).boxed().collect(Collectors.toSet());
+        return new ChallengeSolution(finalOrder, finalAisle);
+    }
 
-        //La cantidad de elementos que se toman en la Wave está en rango
-        IloLinearIntExpr suma = prob.linearIntExpr();
-        for (int o = 0; o < this.orders.size(); o++) {
-            for (Map.Entry<Integer, Integer> i : this.orders.get(o).entrySet()) {
-                suma.addTerm(i.getValue(), listaW1[o]);
-            }
+    /*
+     * The MIP answer unless it is missing, infeasible or worse than the heuristic one
+     */
+    private ChallengeSolution mejorSolucion(ChallengeSolution mip, ChallengeSolution heuristica) {
+        if (mip == null || !this.isSolutionFeasible(mip)) {
+            return heuristica;
         }
-        prob.addLe(suma, this.waveSizeUB);
-        prob.addGe(suma, this.waveSizeLB);
-
-        // Todos los elementos que tomo de un pasillo tienen stock
-        for (int i = 0; i < this.nItems; i++) {
-            IloLinearIntExpr izq = prob.linearIntExpr();
-            IloLinearIntExpr der = prob.linearIntExpr();
+        if (heuristica != null && this.computeObjectiveFunction(heuristica) > this.computeObjectiveFunction(mip)) {
+            return heuristica;
+        }
+        return mip;
+    }
 
-            for (int o = 0; o < this.orders.size(); o++) {
-                int u_oi = this.orders.get(o).getOrDefault(i, 0);
-                izq.addTerm(u_oi, listaW1[o]);
-            }
-            for (int a = 0; a < this.aisles.size(); a++) {
-                int u_ai = this.aisles.get(a).getOrDefault(i, 0);
-                der.addTerm(u_ai, listaA1[a]);
-            }
-            prob.addLe(izq, der); // Agrega la restricción
+    private List<List<Boolean>> planteoPasillosFijos(IloCplex prob, WaveMatrix base, boolean[][] inicial, TimeBudget presupuesto) throws IloException {
+        if (this.instance.nOrders() == 0 || this.instance.nAisles() == 0) {
+            throw new IloException("Error: No hay órdenes o pasillos disponibles.");
         }
 
+        WaveModel modelo = WaveModel.build(prob, base).conTelemetria(telemetria);
+        IloLinearIntExpr suma = modelo.suma;
+
         double maximo = MINUS_INF;
         double valorObjetivoActual;
-        List<Boolean> valoresW = List.of();
-        List<Boolean> valoresA = List.of();
+        List<List<Boolean>> resPasillos = List.of(List.of(), List.of());
+        if (inicial != null) {
+            // The heuristic wave is the incumbent to beat; it also prunes the aisle counts that cannot reach it
+            resPasillos = WaveModel.comoListas(inicial);
+            maximo = this.computeObjectiveFunction(aSolucion(resPasillos));
+        }
         prob.addMaximize(suma);
         prob.setParam(IloCplex.Param.MIP.Tolerances.AbsMIPGap, TOLERANCE);
-        IloLinearIntExpr sumaDeA = prob.linearIntExpr();
-        for (int a = 0; a < this.aisles.size(); a++) {
-            sumaDeA.addTerm(1, listaA1[a]);
-        }
-
-        for (int aPrima = 1; aPrima < this.aisles.size() + 1 && maximo * aPrima <= this.waveSizeUB ; aPrima++) {
-            //int aPrima = 2;
+        IloLinearIntExpr sumaDeA = modelo.sumaDeA;
+        // Incumbent of the previous aPrima, repaired into the start of the next one
+        boolean[][] incumbente = inicial;
+        long inicioBarrido = System.nanoTime();
+        int solves = 0;
+
+        //Counts are tried from the best ratio bound down; once one cannot beat maximo, no later one can
+        AisleCountBounds cotas = new AisleCountBounds(this.instance);
+        // Whether every count tried was solved to optimality or proven infeasible
+        boolean cerrado = true;
+        int k = 0;
+        for (; k < cotas.cantidad() && cotas.puedeMejorar(cotas.conteo(k), maximo) && presupuesto.hayTiempo(); k++) {
             //La cantidad de pasillos usados es A* (pasado por parámetro)
+            int aPrima = cotas.conteo(k);
 
             IloConstraint restriccionA = prob.addEq(sumaDeA, aPrima);
+            modelo.agregarMipStart(modelo.inicios().conPasillos(incumbente, aPrima), IloCplex.MIPStartEffort.Auto);
+            solves++;
 
-            if (prob.solve()) {
+            boolean resuelto = modelo.resolver(String.format("a'=%d", aPrima), presupuesto, cotas.restantes(k, maximo));
+            cerrado &= cerrado(prob);
+            if (resuelto) {
                 //Resolver el lp
                 valorObjetivoActual = prob.getObjValue() / aPrima;
+                incumbente = modelo.incumbente();
 
                 if (maximo <= valorObjetivoActual) {
                     maximo = valorObjetivoActual;
-                    System.out.println(valorObjetivoActual);
-                    valoresW = new ArrayList<>();
-                    valoresA = new ArrayList<>();
-
-                    for (IloIntVar w : listaW1) {
-                        valoresW.add(prob.getValue(w) >= 0.5);
-                    }
-
-                    for (IloIntVar a : listaA1) {
-                        valoresA.add(prob.getValue(a) >= 0.5);
-                    }
+                    telemetria.mensaje("Nueva mejor razon %f con a'=%d", valorObjetivoActual, aPrima);
+                    resPasillos = WaveModel.comoListas(incumbente);
                 }
             } else {
-                System.out.println(String.format("Infactible para a'=%d", aPrima));
+                telemetria.mensaje("Infactible para a'=%d", aPrima);
             }
             prob.remove(restriccionA);
         }
-        //System.out.println(prob.getValue(suma) / prob.getValue(sumaDeA));
-        resPasillos.add(valoresW);
-        resPasillos.add(valoresA);
+        int evitados = k < cotas.cantidad() && !cotas.puedeMejorar(cotas.conteo(k), maximo) ? cotas.cantidad() - k : 0;
+        busquedaCompleta = cerrado && k + evitados == cotas.cantidad();
+        telemetria.mensaje("Barrido de pasillos: %d solves, %d evitados por cotas, %d ms", solves, evitados,
+                (System.nanoTime() - inicioBarrido) / 1_000_000);
         return resPasillos;
     }
 
-    private List<List<Boolean>> planteo_busqueda_binaria(IloCplex prob, double epsilon, StopWatch stopWatch) throws IloException {
-        List<List<Boolean>> resBB = new ArrayList<>();
-
-        if (this.orders.isEmpty() || this.aisles.isEmpty()) {
+    /*
+     * Binary search on the ratio candidates, each step asking for a wave of that ratio with the least stock slack z.
+     * Its waves go to mejor, and a better wave found there by another search raises the lower end of the search.
+     */
+    private List<List<Boolean>> planteo_busqueda_binaria(IloCplex prob, WaveMatrix base, double epsilon, boolean[][] inicial, TimeBudget presupuesto,
+                                                         SharedIncumbent mejor) throws IloException {
+        if (this.instance.nOrders() == 0 || this.instance.nAisles() == 0) {
             throw new IloException("Error: No hay órdenes o pasillos disponibles.");
         } //Exception if some input is empty
 
-        IloIntVar[] listaW1 = new IloIntVar[this.orders.size()];
-        IloIntVar[] listaA1 = new IloIntVar[this.aisles.size()];
-
-        //If the order is in the wave
-        for (int o = 0; o < this.orders.size(); o++) {
-            listaW1[o] = prob.boolVar(String.format("W_%d", o));
-        }
-
-        //If the aisle is used
-        for (int a = 0; a < this.aisles.size(); a++) {
-            listaA1[a] = prob.boolVar(String.format("A_%d", a));
-        }
-
         IloNumVar z = prob.numVar(0, waveSizeUB, "z"); //Creates a real variable
 
-        //The amount of items which are in the wave is bounded
-        IloLinearIntExpr suma = prob.linearIntExpr();
-        for (int o = 0; o < this.orders.size(); o++) {
-            for (Map.Entry<Integer, Integer> i : this.orders.get(o).entrySet()) {
-                suma.addTerm(i.getValue(), listaW1[o]);
-            }
-        }
-        prob.addLe(suma, this.waveSizeUB);
-        prob.addGe(suma, this.waveSizeLB);
+        //Every item grabbed from an aisle has stock, up to the slack z
+        WaveModel modelo = WaveModel.buildWithSlack(prob, base, z).conTelemetria(telemetria);
+        IloLinearIntExpr suma = modelo.suma;
 
-        //Every item grabbed from an aisle has stock
-        for (int i = 0; i < this.nItems; i++) {
-            IloLinearNumExpr izq = prob.linearNumExpr();
-            IloLinearNumExpr der = prob.linearNumExpr();
-
-            for (int o = 0; o < this.orders.size(); o++) {
-                int u_oi = this.orders.get(o).getOrDefault(i, 0);
-                izq.addTerm(u_oi, listaW1[o]);
-            }
-            for (int a = 0; a < this.aisles.size(); a++) {
-                int u_ai = this.aisles.get(a).getOrDefault(i, 0);
-                der.addTerm(u_ai, listaA1[a]);
-            }
-            //izq < der + z
-            der.addTerm(1, z); //Add z to der
-            prob.addLe(izq, der); //Stock is upper bound of grabbed items for all i
-        }
-
-        //List all possible values of k
-        Set<Double> conjValoresK = new HashSet<>();
-        for (int b = waveSizeLB; b < waveSizeUB + 1; b++) {
-            for (int a = 1; a <= aisles.size(); a++) {
-                conjValoresK.add((double) b / a);
-            }
-        }
-        // Convert Set a List
-        List<Double> valoresK = new ArrayList<>(conjValoresK);
-        Collections.sort(valoresK); // Ordenar la lista
-        //We will run the binary search on the array, instead of taking an epsilon
-        List<Boolean> valoresW = List.of();
-        List<Boolean> valoresA = List.of();
+        //All possible values of k (b / a for b in [LB, UB] and a in [1, nAisles]), walked without listing them
+        RatioCandidates valoresK = new RatioCandidates(waveSizeLB, waveSizeUB, instance.nAisles());
+        //We will run the binary search on the candidates, instead of taking an epsilon
+        List<List<Boolean>> resBB;
         prob.addMinimize(z);
         prob.setParam(IloCplex.Param.MIP.Tolerances.AbsMIPGap, TOLERANCE);
 
         //The sum of aisles used by the model (defined outside the while loop)
-        IloLinearNumExpr sumaDeA = prob.linearNumExpr();
-        for (int a = 0; a < this.aisles.size(); a++) {
-            sumaDeA.addTerm(1, listaA1[a]);
-        }
+        IloLinearIntExpr sumaDeA = modelo.sumaDeA;
         prob.addGe(sumaDeA, 1);
 
-        //Set params for the binary search
-        int searchMin = 0;
-        int searchMax = valoresK.size();
-
-        // Solve the model for the LB to have the worst case scenario
-        IloConstraint restriccion1 = prob.addGe(prob.sum(prob.prod(valoresK.get(0), sumaDeA), prob.prod(-1, suma)), -EPSILON); // Convertirlo a restricciones ensanguchadas con epsilon
-        IloConstraint restriccion2 = prob.addLe(prob.sum(prob.prod(valoresK.get(0), sumaDeA), prob.prod(-1, suma)), EPSILON - 10e-3);
-
-        boolean isSolved = prob.solve();
-
-        if (isSolved){
-            valoresW = new ArrayList<>();
-            valoresA = new ArrayList<>();
+        //Set params for the binary search: searchMin is feasible, searchMax is above every candidate
+        RatioCandidates.Fraction searchMin = valoresK.first();
+        RatioCandidates.Fraction searchMax = valoresK.sentinel();
+        long inicioBusqueda = System.nanoTime();
+        int solves = 0;
+        // Whether every step was solved to optimality or proven infeasible
+        boolean cerrado = true;
+        // Last incumbent with z = 0, repaired into the start of the next step
+        boolean[][] incumbente;
+        boolean[][] inicio;
+
+        if (inicial != null) {
+            // units / aisles of the heuristic wave is itself a candidate, and the wave proves it feasible
+            incumbente = inicial;
+            resBB = WaveModel.comoListas(inicial);
+            searchMin = new RatioCandidates.Fraction(modelo.inicios().unidades(inicial[0]), MipStarts.contar(inicial[1]));
+        } else {
+            // Solve the model for the LB to have the worst case scenario
+            IloConstraint restriccion1 = prob.addGe(prob.sum(prob.prod(searchMin.value(), sumaDeA), prob.prod(-1, suma)), -EPSILON); // Convertirlo a restricciones ensanguchadas con epsilon
+            IloConstraint restriccion2 = prob.addLe(prob.sum(prob.prod(searchMin.value(), sumaDeA), prob.prod(-1, suma)), EPSILON - 10e-3);
 
-            for (IloIntVar w : listaW1) {
-                valoresW.add(prob.getValue(w) >= 0.5);
+            inicio = modelo.inicios().conRatio(null, searchMin.value(), EPSILON);
+            if (inicio != null) {
+                modelo.agregarMipStart(inicio, IloCplex.MIPStartEffort.Auto);
             }
+            boolean isSolved = modelo.resolver(String.format("k=%s", searchMin), presupuesto,
+                    valoresK.stepsLeft(searchMin, searchMax) + 1);
+            solves++;
 
-            for (IloIntVar a : listaA1) {
-                valoresA.add(prob.getValue(a) >= 0.5);
+            if (isSolved){
+                incumbente = modelo.incumbente();
+                resBB = WaveModel.comoListas(incumbente);
+            }
+            else{
+                telemetria.mensaje("Infactible para k=%s", searchMin);
+                // Every wave has a ratio of at least LB / nAisles: an infeasible first step leaves no wave at all
+                busquedaCompleta = prob.getStatus() == IloCplex.Status.Infeasible;
+                return null;
             }
-        }
-        else{
-            System.out.println(String.format("Infactible", 0));
-            return null;
-        }
 
-        prob.remove(restriccion1);
-        prob.remove(restriccion2);
+            prob.remove(restriccion1);
+            prob.remove(restriccion2);
+        }
 
-        System.out.println(valoresK.get(0));
-        int remainingTime = (int) this.getRemainingTime(stopWatch);
-        
-        while (searchMin < searchMax - 1 && remainingTime > this.MAX_REMAINING_SECONDS_TO_STOP) { //Termination criterion
-            prob.setParam(IloCplex.Param.TimeLimit, remainingTime-5);
+        telemetria.mensaje("Razon inicial %f", searchMin.value());
+        RatioCandidates.Fraction j;
 
-            System.out.println(String.format("Remaining time: %d", remainingTime));
-            int j = (int) Math.floor((double) (searchMax + searchMin) / 2);
+        while (presupuesto.hayTiempo()) { //Termination criterion
+            if (mejor.ratio() > searchMin.value()) {
+                // Another search found a better wave: it proves its own ratio feasible
+                incumbente = mejor.solucion();
+                resBB = WaveModel.comoListas(incumbente);
+                searchMin = new RatioCandidates.Fraction(modelo.inicios().unidades(incumbente[0]), MipStarts.contar(incumbente[1]));
+            }
+            if ((j = valoresK.between(searchMin, searchMax)) == null) {
+                // No candidate left between a feasible ratio and an excluded one
+                busquedaCompleta = cerrado;
+                break;
+            }
+            telemetria.mensaje("Remaining time: %d ms", presupuesto.restanteMs());
 
-            restriccion1 = prob.addGe(prob.sum(prob.prod(valoresK.get(j), sumaDeA), prob.prod(-1, suma)), -EPSILON); // Convertirlo a restricciones ensanguchadas con epsilon
-            restriccion2 = prob.addLe(prob.sum(prob.prod(valoresK.get(j), sumaDeA), prob.prod(-1, suma)), EPSILON - 10e-3);
+            IloConstraint restriccion1 = prob.addGe(prob.sum(prob.prod(j.value(), sumaDeA), prob.prod(-1, suma)), -EPSILON); // Convertirlo a restricciones ensanguchadas con epsilon
+            IloConstraint restriccion2 = prob.addLe(prob.sum(prob.prod(j.value(), sumaDeA), prob.prod(-1, suma)), EPSILON - 10e-3);
+            inicio = modelo.inicios().conRatio(incumbente, j.value(), EPSILON);
+            if (inicio != null) {
+                modelo.agregarMipStart(inicio, IloCplex.MIPStartEffort.Auto);
+            } else {
+                modelo.agregarMipStart(incumbente, IloCplex.MIPStartEffort.Repair);
+            }
 
-            isSolved = prob.solve();
+            boolean isSolved = modelo.resolver(String.format("k=%s", j), presupuesto, valoresK.stepsLeft(searchMin, searchMax));
+            solves++;
+            cerrado &= cerrado(prob);
 
             if (isSolved) {
                 double z_obj = prob.getObjValue();
-                System.out.println(String.format("Objetivo: %f", z_obj));
+                telemetria.mensaje("Objetivo: %f", z_obj);
                 if (z_obj > 0) {
                     searchMax = j;
                 }
                 else {
                     searchMin = j;
-        
-                    valoresW = new ArrayList<>();
-                    valoresA = new ArrayList<>();
-
-                    for (IloIntVar w : listaW1) {
-                        valoresW.add(prob.getValue(w) >= 0.5);
-                    }
-
-                    for (IloIntVar a : listaA1) {
-                        valoresA.add(prob.getValue(a) >= 0.5);
-                    }
+                    incumbente = modelo.incumbente();
+                    resBB = WaveModel.comoListas(incumbente);
+                    mejor.ofrecer((double) modelo.inicios().unidades(incumbente[0]) / MipStarts.contar(incumbente[1]), incumbente);
                 }
             } else {
-                System.out.println(String.format("Infactible", j));
-                return null;
+                // Infeasible or out of time before any wave: keep the last feasible ratio
+                telemetria.mensaje("Infactible para k=%s", j);
+                busquedaCompleta = cerrado;
+                break;
             }
 
             prob.remove(restriccion1);
             prob.remove(restriccion2);
-            remainingTime = (int) this.getRemainingTime(stopWatch);
         }
+        telemetria.mensaje("Busqueda binaria: %d solves%s, %d ms", solves, busquedaCompleta ? ", terminada" : "",
+                (System.nanoTime() - inicioBusqueda) / 1_000_000);
 
-        resBB.add(valoresW);
-        resBB.add(valoresA);
         return resBB;
     }
+
     /*
-     * Get the remaining time in seconds
+     * Whether the last solve of prob settled its question: an optimum, or a proof that there is no wave.
      */
-    protected long getRemainingTime(StopWatch stopWatch) {
-        return Math.max(
-                TimeUnit.SECONDS.convert(MAX_RUNTIME - stopWatch.getTime(TimeUnit.MILLISECONDS), TimeUnit.MILLISECONDS),
-                0);
+    private static boolean cerrado(IloCplex prob) throws IloException {
+        IloCplex.Status estado = prob.getStatus();
+        return estado == IloCplex.Status.Optimal || estado == IloCplex.Status.Infeasible;
+    }
+
+    /*
+     * Dinkelbach, see the Dinkelbach class. A better wave in mejor, found by another search, moves lambda straight
+     * to its ratio; a proof of the best ratio marks it optimal.
+     */
+    private List<List<Boolean>> planteoDinkelbach(IloCplex prob, WaveMatrix base, boolean[][] inicial, TimeBudget presupuesto,
+                                                  SharedIncumbent mejor) throws IloException {
+        if (this.instance.nOrders() == 0 || this.instance.nAisles() == 0) {
+            throw new IloException("Error: No hay órdenes o pasillos disponibles.");
+        }
+
+        WaveModel modelo = WaveModel.build(prob, base).conTelemetria(telemetria);
+        Dinkelbach dinkelbach = new Dinkelbach(modelo, telemetria);
+        // Every feasible wave has a ratio of at least LB / nAisles; the heuristic wave usually gives a much better start
+        double lambda = (double) this.waveSizeLB / this.instance.nAisles();
+        if (inicial != null) {
+            lambda = this.computeObjectiveFunction(aSolucion(WaveModel.comoListas(inicial)));
+        }
+        boolean[][] resDinkelbach = dinkelbach.resolver(inicial, lambda, presupuesto, mejor);
+        busquedaCompleta = dinkelbach.terminada();
+        return resDinkelbach == null ? null : WaveModel.comoListas(resDinkelbach);
     }
 
     protected boolean isSolutionFeasible(ChallengeSolution challengeSolution) {
@@ -340,15 +553,15 @@ public class ChallengeSolver {
 
         // Calculate total units picked
         for (int order : selectedOrders) {
-            for (Map.Entry<Integer, Integer> entry : orders.get(order).entrySet()) {
-                totalUnitsPicked[entry.getKey()] += entry.getValue();
+            for (int k = instance.orderStart(order); k < instance.orderEnd(order); k++) {
+                totalUnitsPicked[instance.orderItem(k)] += instance.orderQuantity(k);
             }
         }
 
         // Calculate total units available
         for (int aisle : visitedAisles) {
-            for (Map.Entry<Integer, Integer> entry : aisles.get(aisle).entrySet()) {
-                totalUnitsAvailable[entry.getKey()] += entry.getValue();
+            for (int k = instance.aisleStart(aisle); k < instance.aisleEnd(aisle); k++) {
+                totalUnitsAvailable[instance.aisleItem(k)] += instance.aisleQuantity(k);
             }
         }
 
@@ -378,9 +591,7 @@ public class ChallengeSolver {
 
         // Calculate total units picked
         for (int order : selectedOrders) {
-            totalUnitsPicked += orders.get(order).values().stream()
-                    .mapToInt(Integer::intValue)
-                    .sum();
+            totalUnitsPicked += instance.orderUnits(order);
         }
 
         // Calculate the number of visited aisles
@@ -0,0 +1,152 @@
+package org.sbpo2025.challenge;
+
+import java.util.Arrays;
+
+import ilog.concert.IloException;
+import ilog.concert.IloObjective;
+import ilog.cplex.IloCplex;
+
+/**
+ * Dinkelbach on a {@link WaveModel}: maximize F(lambda) = units - lambda * aisles and move lambda to the ratio of the
+ * incumbent until no wave beats it. Each iteration only changes the objective coefficients of the A columns, so
+ * the model is built once and can be re-solved after {@link IncrementalSolver} edits it.
+ * <p>
+ * The iterations run with a small absolute gap. Once one cannot improve lambda, the same lambda is solved again
+ * with no gap at all: if lambda is p / q with q at most the number of aisles, a better wave has F(lambda) of at
+ * least 1 / q, so an optimal F(lambda) that does not improve lambda proves it is the best ratio.
+ */
+final class Dinkelbach {
+
+    private static final double TOLERANCE = Math.exp(-6);
+    /** Relative gap CPLEX uses by default. */
+    private static final double GAP_RELATIVO = 1e-4;
+    /** Dinkelbach usually converges in a handful of iterations; the slices assume this many are left. */
+    private static final int ITERACIONES = 3;
+
+    private final WaveModel modelo;
+    private final IloCplex prob;
+    private final IloObjective objetivo;
+    private final SolverTelemetry telemetria;
+    private double lambda;
+    private boolean terminada;
+
+    Dinkelbach(WaveModel modelo, SolverTelemetry telemetria) throws IloException {
+        this.modelo = modelo;
+        this.prob = modelo.prob;
+        this.telemetria = telemetria;
+        prob.addGe(modelo.sumaDeA, 1);
+        // The aisle coefficients are set by each solve
+        this.objetivo = prob.addMaximize(modelo.suma);
+    }
+
+    /**
+     * Appends an order to the model, see {@link WaveModel#agregarOrden}, with its units in the objective.
+     */
+    int agregarOrden(int[] items, int[] cantidades) throws IloException {
+        int o = modelo.agregarOrden(items, cantidades);
+        prob.setLinearCoef(objetivo, Arrays.stream(cantidades).sum(), modelo.listaW[o]);
+        return o;
+    }
+
+    /**
+     * Runs Dinkelbach from {@code lambda} until it converges or {@code presupuesto} runs out, and returns the best
+     * wave as {W, A}: {@code inicial} if none beat it, null if there was neither. A better wave in {@code mejor},
+     * found by another search, moves lambda straight to its ratio; a proof marks {@code mejor} optimal.
+     *
+     * @param inicial wave to start from, or null
+     * @param lambda  ratio of {@code inicial}, or without one a ratio p / q no better than the optimum, with q at most
+     *                the number of aisles
+     */
+    boolean[][] resolver(boolean[][] inicial, double lambda, TimeBudget presupuesto, SharedIncumbent mejor) throws IloException {
+        this.terminada = false;
+        this.lambda = lambda;
+        fijarLambda();
+        boolean[][] resDinkelbach = inicial;
+        boolean[][] incumbente = inicial != null ? inicial : modelo.inicios().conPasillos(null, 1);
+        double mejorRatio = inicial != null ? lambda : Double.NEGATIVE_INFINITY;
+        boolean prueba = false;
+        fijarGap(TOLERANCE);
+        long inicio = System.nanoTime();
+        int solves = 0;
+
+        try {
+            while (presupuesto.hayTiempo()) {
+                if (mejor.ratio() > this.lambda) {
+                    this.lambda = mejor.ratio();
+                    incumbente = mejor.solucion();
+                    fijarLambda();
+                }
+                // The previous incumbent stays feasible, only the objective changed
+                modelo.agregarMipStart(incumbente, IloCplex.MIPStartEffort.Auto);
+                long t0 = System.nanoTime();
+                boolean isSolved = modelo.resolver(String.format("lambda=%f%s", this.lambda, prueba ? " sin gap" : ""),
+                        presupuesto, prueba ? 1 : ITERACIONES);
+                solves++;
+                long solveMs = (System.nanoTime() - t0) / 1_000_000;
+
+                if (!isSolved) {
+                    // The constraints do not depend on lambda: an infeasible model has no wave at all
+                    terminada = prob.getStatus() == IloCplex.Status.Infeasible;
+                    telemetria.mensaje("Dinkelbach %d: sin solucion, %s (lambda=%f, %d ms)", solves, prob.getStatus(),
+                            this.lambda, solveMs);
+                    break;
+                }
+                double f = prob.getObjValue();
+                double ratio = prob.getValue(modelo.suma) / prob.getValue(modelo.sumaDeA);
+                incumbente = modelo.incumbente();
+                telemetria.mensaje("Dinkelbach %d: lambda=%f F=%f ratio=%f solve=%d ms total=%d ms",
+                        solves, this.lambda, f, ratio, solveMs, (System.nanoTime() - inicio) / 1_000_000);
+
+                if (ratio > mejorRatio) {
+                    mejorRatio = ratio;
+                    resDinkelbach = incumbente;
+                }
+                mejor.ofrecer(ratio, incumbente);
+                if (ratio > this.lambda) {
+                    this.lambda = ratio;
+                    fijarLambda();
+                    if (prueba) {
+                        prueba = false;
+                        fijarGap(TOLERANCE);
+                    }
+                    continue;
+                }
+                // No better wave within the gap; a solve cut short proves nothing
+                if (prob.getStatus() != IloCplex.Status.Optimal) {
+                    break;
+                }
+                if (prueba) {
+                    terminada = true;
+                    mejor.marcarOptima();
+                    break;
+                }
+                prueba = true;
+                fijarGap(0);
+            }
+        } finally {
+            fijarGap(TOLERANCE);
+        }
+        telemetria.mensaje("Dinkelbach: %d solves, ratio %f%s, %d ms", solves, mejorRatio,
+                terminada ? " terminada" : "", (System.nanoTime() - inicio) / 1_000_000);
+        return resDinkelbach;
+    }
+
+    /**
+     * Whether the last {@link #resolver} call finished the search: it proved the best ratio optimal, or that there
+     * is no wave. False if it ran out of time or a solve was cut short.
+     */
+    boolean terminada() {
+        return terminada;
+    }
+
+    private void fijarLambda() throws IloException {
+        double[] coefsA = new double[modelo.listaA.length];
+        Arrays.fill(coefsA, -lambda);
+        prob.setLinearCoefs(objetivo, coefsA, modelo.listaA);
+    }
+
+    private void fijarGap(double absoluto) throws IloException {
+        prob.setParam(IloCplex.Param.MIP.Tolerances.AbsMIPGap, absoluto);
+        prob.setParam(IloCplex.Param.MIP.Tolerances.MIPGap, absoluto == 0 ? 0 : GAP_RELATIVO);
+    }
+}
@@ -0,0 +1,152 @@
+package org.sbpo2025.challenge;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import ilog.concert.IloException;
+
+/**
+ * Several searches on the same instance at the same time, each on its own thread and with its own models, instead of
+ * choosing one formulation up front ({@code --mode portafolio}).
+ * <p>
+ * The strategies share the best wave through views of one {@link SharedIncumbent}, so each prunes or tightens
+ * against the best ratio any of them found. Each gets its own {@link TimeBudget#derivado() budget} with the deadline
+ * of the run; all are cancelled as soon as one proves the best ratio optimal, or once every strategy that is not
+ * auxiliary has ended, since an auxiliary one (the heuristic) would otherwise run to the deadline. A strategy that
+ * fails, e.g. without CPLEX, is reported and the others go on. Strategies {@link TimeBudget#vigilar watch} their
+ * models with their budget and {@link TimeBudget#soltar let go} of them before ending them, so that a late
+ * cancellation never reaches an ended model.
+ * <p>
+ * The outcome of each strategy goes to the telemetry as an {@code estrategia} event, with the instance shape, so
+ * that runs can be compared by which strategy wins where.
+ */
+final class FormulationPortfolio {
+
+    /**
+     * One search. Offers its waves to {@code mejor}, marks it optimal if it proves so, and stops when
+     * {@code presupuesto} has no time left.
+     */
+    interface Estrategia {
+        void correr(SharedIncumbent mejor, TimeBudget presupuesto) throws IloException;
+    }
+
+    /**
+     * How a strategy ended: {@code optima} if it proved the best ratio, {@code cancelada} if another one did or all
+     * the others ended, {@code tiempo} at the deadline, {@code terminada} on its own, or {@code error}.
+     */
+    record Resultado(String estrategia, long ms, double ratio, String fin, boolean ganadora) {
+    }
+
+    private record Entrada(String nombre, boolean auxiliar, Estrategia estrategia) {
+    }
+
+    private final ChallengeInstance instance;
+    private final SharedIncumbent mejor;
+    private final TimeBudget presupuesto;
+    private final SolverTelemetry telemetria;
+    private final List<Entrada> entradas = new ArrayList<>();
+    private final List<TimeBudget> presupuestos = new ArrayList<>();
+    private int activas;
+
+    FormulationPortfolio(ChallengeInstance instance, SharedIncumbent mejor, TimeBudget presupuesto, SolverTelemetry telemetria) {
+        this.instance = instance;
+        this.mejor = mejor;
+        this.presupuesto = presupuesto;
+        this.telemetria = telemetria;
+    }
+
+    /**
+     * @param auxiliar whether the portfolio may stop it once the other strategies have ended
+     */
+    FormulationPortfolio agregar(String nombre, boolean auxiliar, Estrategia estrategia) {
+        entradas.add(new Entrada(nombre, auxiliar, estrategia));
+        return this;
+    }
+
+    /**
+     * Runs every strategy until one proves optimality or they end, and returns their outcomes in the order they
+     * were added. The best wave is in the shared incumbent.
+     */
+    List<Resultado> resolver() throws IloException {
+        long inicio = System.nanoTime();
+        List<SharedIncumbent> vistas = new ArrayList<>();
+        for (Entrada entrada : entradas) {
+            vistas.add(mejor.vista());
+            presupuestos.add(presupuesto.derivado());
+            activas += entrada.auxiliar() ? 0 : 1;
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, entradas.size()));
+        List<String> fines = new ArrayList<>();
+        long[] ms = new long[entradas.size()];
+        boolean terminadas = false;
+        try {
+            List<Future<String>> tareas = new ArrayList<>();
+            for (int k = 0; k < entradas.size(); k++) {
+                int id = k;
+                tareas.add(pool.submit(() -> correr(id, vistas.get(id), ms)));
+            }
+            for (Future<String> tarea : tareas) {
+                fines.add(tarea.get());
+            }
+            terminadas = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IloException("Portafolio interrumpido");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new RuntimeException(e.getCause());
+        } finally {
+            // Strategies that returned have let go of their models; the others are stopped here
+            if (!terminadas) {
+                presupuestos.forEach(TimeBudget::cancelar);
+            }
+            pool.shutdownNow();
+        }
+
+        List<Resultado> resultados = new ArrayList<>();
+        for (int k = 0; k < entradas.size(); k++) {
+            double ratio = vistas.get(k).ratioPropio();
+            boolean ganadora = ratio > Double.NEGATIVE_INFINITY && ratio == mejor.ratio();
+            Resultado resultado = new Resultado(entradas.get(k).nombre(), ms[k], ratio, fines.get(k), ganadora);
+            resultados.add(resultado);
+            telemetria.estrategia(resultado.estrategia(), resultado.ms(), resultado.ratio(), resultado.fin(),
+                    resultado.ganadora(), instance.nOrders(), instance.nAisles(), instance.nItems());
+        }
+        telemetria.mensaje("Portafolio: ratio %f%s, %d ms", mejor.ratio(), mejor.optima() ? " optima" : "",
+                (System.nanoTime() - inicio) / 1_000_000);
+        return resultados;
+    }
+
+    private String correr(int id, SharedIncumbent vista, long[] ms) {
+        Entrada entrada = entradas.get(id);
+        TimeBudget propio = presupuestos.get(id);
+        long t0 = System.nanoTime();
+        String fin;
+        try {
+            entrada.estrategia().correr(vista, propio);
+            fin = vista.optima() ? "optima" : propio.cancelado() ? "cancelada" : propio.hayTiempo() ? "terminada" : "tiempo";
+        } catch (IloException | RuntimeException | LinkageError e) {
+            // Only this strategy is lost; the others keep their budgets and go on
+            telemetria.mensaje("Portafolio: %s fallo (%s)", entrada.nombre(), e);
+            fin = "error";
+        }
+        ms[id] = (System.nanoTime() - t0) / 1_000_000;
+        telemetria.mensaje("Portafolio: %s %s en %d ms, ratio %f", entrada.nombre(), fin, ms[id], vista.ratioPropio());
+        synchronized (this) {
+            activas -= entrada.auxiliar() ? 0 : 1;
+            if (mejor.optima() || activas == 0) {
+                presupuestos.forEach(TimeBudget::cancelar);
+            }
+        }
+        return fin;
+    }
+}
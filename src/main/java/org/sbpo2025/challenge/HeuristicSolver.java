@@ -0,0 +1,346 @@
+package org.sbpo2025.challenge;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Greedy construction plus local search on the instance arrays, without any solver library.
+ * <p>
+ * The construction opens aisles one at a time, always the one that covers the most still-unserved demand, and after
+ * each aisle adds the orders that now fit (largest first). The best prefix with at least LB units is kept. The local
+ * search then tries, until the time budget runs out, to drop an aisle, add an aisle, swap an aisle for one that
+ * shares items with the wave, or swap an order for orders that fit in the stock it frees. A move is kept only if the
+ * wave stays feasible and its ratio improves; otherwise it is undone from a journal. The wave is a
+ * {@link WaveEvaluator} and all state is preallocated, so the search loop does not allocate.
+ */
+final class HeuristicSolver {
+
+    private static final int AGREGAR_ORDEN = 0;
+    private static final int QUITAR_ORDEN = 1;
+    private static final int AGREGAR_PASILLO = 2;
+    private static final int QUITAR_PASILLO = 3;
+    private static final int MOVIMIENTOS_SIN_MEJORA = 20_000;
+
+    private final ChallengeInstance instance;
+    private final SplittableRandom random;
+
+    // Current wave
+    private final WaveEvaluator ola;
+    /** Demand of the orders outside the wave, per item. */
+    private final int[] pendiente;
+
+    // Best wave
+    private final boolean[] mejorW;
+    private final boolean[] mejorA;
+    private double mejorRatio = Double.NEGATIVE_INFINITY;
+
+    // Buffers
+    private final int[] ordenesPorUnidades;
+    private final long[] candidatos;
+    private final int[] marca;
+    private int generacion;
+    private int[] diario = new int[1024];
+    private int nDiario;
+
+    HeuristicSolver(ChallengeInstance instance, long seed) {
+        this.instance = instance;
+        this.random = new SplittableRandom(seed);
+        int nOrders = instance.nOrders();
+        int nAisles = instance.nAisles();
+        this.ola = new WaveEvaluator(instance);
+        this.pendiente = new int[instance.nItems()];
+        this.mejorW = new boolean[nOrders];
+        this.mejorA = new boolean[nAisles];
+        this.candidatos = new long[nOrders];
+        this.marca = new int[nOrders];
+
+        long[] porUnidades = new long[nOrders];
+        for (int o = 0; o < nOrders; o++) {
+            porUnidades[o] = clave(o);
+        }
+        Arrays.sort(porUnidades);
+        this.ordenesPorUnidades = new int[nOrders];
+        for (int k = 0; k < nOrders; k++) {
+            ordenesPorUnidades[k] = (int) porUnidades[k];
+        }
+    }
+
+    /**
+     * Runs the construction and the local search for at most {@code presupuestoMs} milliseconds and returns the best
+     * wave as {W, A}, or null if no wave with at least LB units was found. Each call is an independent search: only
+     * the random stream carries over, so repeated calls are restarts.
+     */
+    boolean[][] resolver(long presupuestoMs) {
+        long limite = System.nanoTime() + presupuestoMs * 1_000_000;
+        mejorRatio = Double.NEGATIVE_INFINITY;
+        Arrays.fill(mejorW, false);
+        Arrays.fill(mejorA, false);
+        reiniciar();
+        construir(limite);
+        if (mejorRatio == Double.NEGATIVE_INFINITY) {
+            return null;
+        }
+        cargar(mejorW, mejorA);
+        rellenar(ordenesPorUnidades, ordenesPorUnidades.length);
+        registrarSiMejora();
+        busquedaLocal(limite);
+        return new boolean[][]{mejorW.clone(), mejorA.clone()};
+    }
+
+    /**
+     * Ratio of the best wave found by the last {@link #resolver} call.
+     */
+    double ratio() {
+        return mejorRatio;
+    }
+
+    private void construir(long limite) {
+        while (ola.nPasillos() < instance.nAisles() && ola.unidades() < instance.waveSizeUB() && System.nanoTime() < limite) {
+            nDiario = 0;
+            int elegido = -1;
+            long mejorCobertura = 0;
+            for (int p = 0; p < instance.nAisles(); p++) {
+                if (ola.tienePasillo(p)) {
+                    continue;
+                }
+                long cobertura = 0;
+                for (int k = instance.aisleStart(p); k < instance.aisleEnd(p); k++) {
+                    int i = instance.aisleItem(k);
+                    int falta = pendiente[i] - Math.max(0, ola.disponible(i) - ola.tomado(i));
+                    if (falta > 0) {
+                        cobertura += Math.min(falta, instance.aisleQuantity(k));
+                    }
+                }
+                if (cobertura > mejorCobertura) {
+                    mejorCobertura = cobertura;
+                    elegido = p;
+                }
+            }
+            if (elegido < 0) {
+                break;
+            }
+            agregarPasillo(elegido);
+            rellenarPorPasillo(elegido);
+            registrarSiMejora();
+        }
+    }
+
+    private void busquedaLocal(long limite) {
+        int sinMejora = 0;
+        while (sinMejora < MOVIMIENTOS_SIN_MEJORA && System.nanoTime() < limite) {
+            double ratioActual = ola.ratio();
+            nDiario = 0;
+            switch (random.nextInt(4)) {
+                case 0 -> quitarPasilloAlAzar();
+                case 1 -> agregarPasilloVecino();
+                case 2 -> {
+                    quitarPasilloAlAzar();
+                    agregarPasilloVecino();
+                }
+                default -> cambiarOrden();
+            }
+            if (ola.factible() && ola.ratio() > ratioActual + 1e-12) {
+                registrarSiMejora();
+                sinMejora = 0;
+            } else {
+                deshacer();
+                sinMejora++;
+            }
+        }
+    }
+
+    private void quitarPasilloAlAzar() {
+        if (ola.nPasillos() <= 1) {
+            return;
+        }
+        int p = ola.pasillo(random.nextInt(ola.nPasillos()));
+        quitarPasillo(p);
+        // Drop orders on the items that ran out of stock
+        for (int k = instance.aisleStart(p); k < instance.aisleEnd(p); k++) {
+            int i = instance.aisleItem(k);
+            for (int j = instance.itemOrdersStart(i); j < instance.itemOrdersEnd(i) && ola.tomado(i) > ola.disponible(i); j++) {
+                int o = instance.itemOrder(j);
+                if (ola.tieneOrden(o)) {
+                    quitarOrden(o);
+                }
+            }
+        }
+    }
+
+    private void agregarPasilloVecino() {
+        if (ola.nPasillos() == instance.nAisles()) {
+            return;
+        }
+        int p = -1;
+        int o = ola.nOrdenes() > 0 ? ola.orden(random.nextInt(ola.nOrdenes())) : -1;
+        if (o >= 0 && instance.orderEnd(o) > instance.orderStart(o)) {
+            int k = instance.orderStart(o) + random.nextInt(instance.orderEnd(o) - instance.orderStart(o));
+            int i = instance.orderItem(k);
+            int n = instance.itemAislesEnd(i) - instance.itemAislesStart(i);
+            if (n > 0) {
+                p = instance.itemAisle(instance.itemAislesStart(i) + random.nextInt(n));
+            }
+        }
+        for (int intento = 0; intento < 8 && (p < 0 || ola.tienePasillo(p)); intento++) {
+            p = random.nextInt(instance.nAisles());
+        }
+        if (p < 0 || ola.tienePasillo(p)) {
+            return;
+        }
+        agregarPasillo(p);
+        rellenarPorPasillo(p);
+    }
+
+    private void cambiarOrden() {
+        if (ola.nOrdenes() == 0) {
+            return;
+        }
+        int o = ola.orden(random.nextInt(ola.nOrdenes()));
+        quitarOrden(o);
+        int n = candidatosDeOrden(o);
+        rellenar(n);
+    }
+
+    // Greedy fill
+
+    private void rellenarPorPasillo(int p) {
+        generacion++;
+        int n = 0;
+        for (int k = instance.aisleStart(p); k < instance.aisleEnd(p); k++) {
+            n = agregarCandidatosDeItem(instance.aisleItem(k), n);
+        }
+        rellenar(n);
+    }
+
+    /**
+     * Orders sharing an item with {@code o}, excluding {@code o} itself.
+     */
+    private int candidatosDeOrden(int o) {
+        generacion++;
+        marca[o] = generacion;
+        int n = 0;
+        for (int k = instance.orderStart(o); k < instance.orderEnd(o); k++) {
+            n = agregarCandidatosDeItem(instance.orderItem(k), n);
+        }
+        return n;
+    }
+
+    private int agregarCandidatosDeItem(int i, int n) {
+        for (int j = instance.itemOrdersStart(i); j < instance.itemOrdersEnd(i); j++) {
+            int o = instance.itemOrder(j);
+            if (!ola.tieneOrden(o) && marca[o] != generacion) {
+                marca[o] = generacion;
+                candidatos[n++] = clave(o);
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Tries the first {@code n} candidates, largest first.
+     */
+    private void rellenar(int n) {
+        Arrays.sort(candidatos, 0, n);
+        for (int k = 0; k < n && ola.unidades() < instance.waveSizeUB(); k++) {
+            int o = (int) candidatos[k];
+            if (!ola.tieneOrden(o) && ola.entra(o)) {
+                agregarOrden(o);
+            }
+        }
+    }
+
+    private void rellenar(int[] ordenes, int n) {
+        for (int k = 0; k < n && ola.unidades() < instance.waveSizeUB(); k++) {
+            int o = ordenes[k];
+            if (!ola.tieneOrden(o) && ola.entra(o)) {
+                agregarOrden(o);
+            }
+        }
+    }
+
+    /**
+     * Sort key that puts orders with more units first and breaks ties by index.
+     */
+    private long clave(int o) {
+        return ((long) (Integer.MAX_VALUE - instance.orderUnits(o)) << 32) | o;
+    }
+
+    // State updates, all recorded in the journal
+
+    private void agregarOrden(int o) {
+        ola.agregarOrden(o);
+        for (int k = instance.orderStart(o); k < instance.orderEnd(o); k++) {
+            pendiente[instance.orderItem(k)] -= instance.orderQuantity(k);
+        }
+        anotar(o, AGREGAR_ORDEN);
+    }
+
+    private void quitarOrden(int o) {
+        ola.quitarOrden(o);
+        for (int k = instance.orderStart(o); k < instance.orderEnd(o); k++) {
+            pendiente[instance.orderItem(k)] += instance.orderQuantity(k);
+        }
+        anotar(o, QUITAR_ORDEN);
+    }
+
+    private void agregarPasillo(int p) {
+        ola.agregarPasillo(p);
+        anotar(p, AGREGAR_PASILLO);
+    }
+
+    private void quitarPasillo(int p) {
+        ola.quitarPasillo(p);
+        anotar(p, QUITAR_PASILLO);
+    }
+
+    private void anotar(int id, int operacion) {
+        if (nDiario == diario.length) {
+            diario = Arrays.copyOf(diario, 2 * nDiario);
+        }
+        diario[nDiario++] = (id << 2) | operacion;
+    }
+
+    private void deshacer() {
+        int n = nDiario;
+        for (int k = n - 1; k >= 0; k--) {
+            int id = diario[k] >>> 2;
+            switch (diario[k] & 3) {
+                case AGREGAR_ORDEN -> quitarOrden(id);
+                case QUITAR_ORDEN -> agregarOrden(id);
+                case AGREGAR_PASILLO -> quitarPasillo(id);
+                default -> agregarPasillo(id);
+            }
+        }
+        nDiario = 0;
+    }
+
+    // Whole-wave operations
+
+    private void reiniciar() {
+        ola.limpiar();
+        Arrays.fill(pendiente, 0);
+        for (int k = 0; k < instance.orderNonZeros(); k++) {
+            pendiente[instance.orderItem(k)] += instance.orderQuantity(k);
+        }
+        nDiario = 0;
+    }
+
+    private void cargar(boolean[] ordenes, boolean[] pasillos) {
+        reiniciar();
+        ola.cargar(ordenes, pasillos);
+        for (int o = 0; o < ordenes.length; o++) {
+            if (ordenes[o]) {
+                for (int k = instance.orderStart(o); k < instance.orderEnd(o); k++) {
+                    pendiente[instance.orderItem(k)] -= instance.orderQuantity(k);
+                }
+            }
+        }
+    }
+
+    private void registrarSiMejora() {
+        if (ola.factible() && ola.ratio() > mejorRatio) {
+            mejorRatio = ola.ratio();
+            ola.copiarEn(mejorW, mejorA);
+        }
+    }
+}
@@ -0,0 +1,360 @@
+package org.sbpo2025.challenge;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import ilog.concert.IloException;
+import ilog.cplex.IloCplex;
+
+/**
+ * Keeps one Dinkelbach model and the last wave alive while the backlog changes, so that each release only pays for
+ * what changed.
+ * <p>
+ * The model is a {@link WaveModel} loaded from a {@link WaveMatrix} of the first instance, with one column per
+ * aisle, and solved by {@link Dinkelbach}. Orders can be added and removed, aisle stock changed and LB/UB moved;
+ * each change edits the columns and rows it touches (a new column, a fixed bound, a coefficient, a range) and
+ * nothing is rebuilt. The backlog itself is kept as item and unit arrays per order and aisle; the heuristic and the
+ * feasibility checks run on a {@link ChallengeInstance} rebuilt from them after a change.
+ * <p>
+ * {@link #solve(long)} starts Dinkelbach at the ratio of the previous wave, with that wave as MIP start: minus removed
+ * orders and orders that lost their stock, refilled from its aisles with the largest orders that fit. Only when that
+ * stays below LB does it start from a heuristic wave instead. The whole time limit goes to the solves, with no reserve
+ * for output. Order ids are stable: removed orders keep theirs and new ones get the next id. Needs CPLEX;
+ * {@link #close()} frees the model.
+ */
+public final class IncrementalSolver implements AutoCloseable {
+
+    private static final long SEED = 2025;
+
+    private final SolverOptions options;
+    private final SolverTelemetry telemetria;
+    private final IloCplex prob;
+    private final WaveModel modelo;
+    private final Dinkelbach dinkelbach;
+    /** Items and units of each order, by id; removed orders keep theirs. */
+    private final List<int[]> itemsOrden = new ArrayList<>();
+    private final List<int[]> cantidadesOrden = new ArrayList<>();
+    private final BitSet quitadas = new BitSet();
+    /** Items and units of each aisle. */
+    private final int[][] itemsPasillo;
+    private final int[][] cantidadesPasillo;
+    private int nItems;
+    private int waveSizeLB;
+    private int waveSizeUB;
+    /** The current backlog, removed orders as empty ones; null after a change until it is needed. */
+    private ChallengeInstance actual;
+    /** Last feasible wave as {W, A}, null before the first one. */
+    private boolean[][] ola;
+    /** Columns, coefficients and bounds changed since the last solve. */
+    private int cambios;
+
+    public IncrementalSolver(ChallengeInstance instance, SolverOptions options) throws IloException {
+        this(instance, options, SolverTelemetry.DESACTIVADA);
+    }
+
+    IncrementalSolver(ChallengeInstance instance, SolverOptions options, SolverTelemetry telemetria) throws IloException {
+        if (instance.nAisles() == 0) {
+            throw new IllegalArgumentException("The instance has no aisles");
+        }
+        this.options = options;
+        this.telemetria = telemetria;
+        this.actual = instance;
+        this.nItems = instance.nItems();
+        this.waveSizeLB = instance.waveSizeLB();
+        this.waveSizeUB = instance.waveSizeUB();
+        for (int o = 0; o < instance.nOrders(); o++) {
+            int[] items = new int[instance.orderEnd(o) - instance.orderStart(o)];
+            int[] cantidades = new int[items.length];
+            for (int k = 0; k < items.length; k++) {
+                items[k] = instance.orderItem(instance.orderStart(o) + k);
+                cantidades[k] = instance.orderQuantity(instance.orderStart(o) + k);
+            }
+            itemsOrden.add(items);
+            cantidadesOrden.add(cantidades);
+        }
+        this.itemsPasillo = new int[instance.nAisles()][];
+        this.cantidadesPasillo = new int[instance.nAisles()][];
+        for (int a = 0; a < itemsPasillo.length; a++) {
+            itemsPasillo[a] = new int[instance.aisleEnd(a) - instance.aisleStart(a)];
+            cantidadesPasillo[a] = new int[itemsPasillo[a].length];
+            for (int k = 0; k < itemsPasillo[a].length; k++) {
+                itemsPasillo[a][k] = instance.aisleItem(instance.aisleStart(a) + k);
+                cantidadesPasillo[a][k] = instance.aisleQuantity(instance.aisleStart(a) + k);
+            }
+        }
+
+        this.prob = new IloCplex();
+        try {
+            prob.setOut(telemetria.salidaCplex());
+            prob.setParam(IloCplex.Param.Threads, options.getThreads());
+            // One column per aisle, so that the stock of each one can be changed on its own
+            WaveMatrix base = new WaveMatrix(instance, null, options.isModelNames());
+            this.modelo = WaveModel.build(prob, base).conTelemetria(telemetria);
+            this.dinkelbach = new Dinkelbach(modelo, telemetria);
+        } catch (IloException | RuntimeException e) {
+            prob.end();
+            throw e;
+        }
+    }
+
+    /**
+     * Adds an order asking for {@code items} (item to units) and returns its id. Items may be new.
+     */
+    public int addOrder(Map<Integer, Integer> items) throws IloException {
+        Map<Integer, Integer> ordenados = new TreeMap<>(items);
+        return addOrder(ordenados.keySet().stream().mapToInt(Integer::intValue).toArray(),
+                ordenados.values().stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    /**
+     * Adds an order asking for {@code quantities[k]} units of {@code items[k]} and returns its id. Items may be new.
+     */
+    public int addOrder(int[] items, int[] quantities) throws IloException {
+        if (items.length == 0 || items.length != quantities.length || Arrays.stream(items).anyMatch(i -> i < 0)
+                || Arrays.stream(quantities).anyMatch(q -> q <= 0) || Arrays.stream(items).distinct().count() < items.length) {
+            throw new IllegalArgumentException(String.format("Orders need distinct items with positive units, got %s and %s",
+                    Arrays.toString(items), Arrays.toString(quantities)));
+        }
+        int o = dinkelbach.agregarOrden(items, quantities);
+        itemsOrden.add(items.clone());
+        cantidadesOrden.add(quantities.clone());
+        nItems = Math.max(nItems, Arrays.stream(items).max().getAsInt() + 1);
+        actual = null;
+        cambios += 3 + items.length;
+        return o;
+    }
+
+    /**
+     * Takes order {@code order} out of the backlog; its column is fixed to 0.
+     */
+    public void removeOrder(int order) throws IloException {
+        if (order < 0 || order >= itemsOrden.size() || quitadas.get(order)) {
+            throw new IllegalArgumentException("No such order: " + order);
+        }
+        quitadas.set(order);
+        modelo.listaW[order].setUB(0);
+        actual = null;
+        cambios++;
+    }
+
+    /**
+     * Sets the units of {@code item} in aisle {@code aisle}; 0 removes the item from the aisle.
+     */
+    public void setAisleStock(int aisle, int item, int quantity) throws IloException {
+        if (aisle < 0 || aisle >= itemsPasillo.length || item < 0 || quantity < 0) {
+            throw new IllegalArgumentException(String.format("Bad stock change: aisle %d, item %d, quantity %d", aisle, item, quantity));
+        }
+        int[] items = itemsPasillo[aisle];
+        int k = 0;
+        while (k < items.length && items[k] != item) {
+            k++;
+        }
+        if (k == items.length) {
+            itemsPasillo[aisle] = Arrays.copyOf(items, k + 1);
+            itemsPasillo[aisle][k] = item;
+            cantidadesPasillo[aisle] = Arrays.copyOf(cantidadesPasillo[aisle], k + 1);
+        }
+        cantidadesPasillo[aisle][k] = quantity;
+        modelo.cambiarStock(aisle, item, quantity);
+        nItems = Math.max(nItems, item + 1);
+        actual = null;
+        cambios++;
+    }
+
+    public void setWaveBounds(int lb, int ub) throws IloException {
+        if (lb < 0 || ub < lb) {
+            throw new IllegalArgumentException(String.format("Wave bounds need 0 <= LB <= UB, got %d and %d", lb, ub));
+        }
+        waveSizeLB = lb;
+        waveSizeUB = ub;
+        modelo.rangoOla.setBounds(lb, ub);
+        actual = null;
+        cambios++;
+    }
+
+    /**
+     * Best wave of the current backlog within {@code timeLimitMillis}, or null if none was found. The first call
+     * starts from the heuristic wave, later ones from the previous answer.
+     */
+    public ChallengeSolution solve(long timeLimitMillis) throws IloException {
+        TimeBudget presupuesto = TimeBudget.paraReoptimizar(timeLimitMillis);
+        long inicio = System.nanoTime();
+        ChallengeSolver evaluador = new ChallengeSolver(actual());
+        double ratioAnterior = ola == null ? 0 : evaluador.computeObjectiveFunction(comoSolucion(ola));
+
+        boolean[][] inicial = ola != null ? reparar(ola) : null;
+        if (inicial == null) {
+            inicial = heuristica(presupuesto);
+        }
+        if (inicial != null && !factible(evaluador, inicial)) {
+            inicial = null;
+        }
+        // Without a wave, LB over the aisles is a ratio no wave is below
+        double lambda = inicial != null ? evaluador.computeObjectiveFunction(comoSolucion(inicial))
+                : (double) waveSizeLB / itemsPasillo.length;
+        boolean[][] mejor = dinkelbach.resolver(inicial, lambda, presupuesto, new SharedIncumbent());
+        if (mejor != null && !factible(evaluador, mejor)) {
+            mejor = null;
+        }
+        telemetria.mensaje("Re-optimizacion: %d cambios, ratio %f -> %f, %d ms", cambios, ratioAnterior,
+                mejor == null ? 0 : evaluador.computeObjectiveFunction(comoSolucion(mejor)),
+                (System.nanoTime() - inicio) / 1_000_000);
+        cambios = 0;
+        if (mejor != null) {
+            ola = mejor;
+        }
+        return mejor == null ? null : getSolution();
+    }
+
+    /**
+     * Last wave found, with the current order and aisle ids, or null.
+     */
+    public ChallengeSolution getSolution() {
+        return ola == null ? null : comoSolucion(ola);
+    }
+
+    @Override
+    public void close() {
+        prob.end();
+    }
+
+    /**
+     * The current backlog as an instance; removed orders are empty, so that ids stay the same.
+     */
+    ChallengeInstance actual() {
+        if (actual == null) {
+            int nOrdenes = itemsOrden.size();
+            int[] inicioOrden = new int[nOrdenes + 1];
+            for (int o = 0; o < nOrdenes; o++) {
+                inicioOrden[o + 1] = inicioOrden[o] + (quitadas.get(o) ? 0 : itemsOrden.get(o).length);
+            }
+            int[] itemOrden = new int[inicioOrden[nOrdenes]];
+            int[] cantidadOrden = new int[itemOrden.length];
+            for (int o = 0; o < nOrdenes; o++) {
+                if (!quitadas.get(o)) {
+                    System.arraycopy(itemsOrden.get(o), 0, itemOrden, inicioOrden[o], itemsOrden.get(o).length);
+                    System.arraycopy(cantidadesOrden.get(o), 0, cantidadOrden, inicioOrden[o], itemsOrden.get(o).length);
+                }
+            }
+            int[] inicioPasillo = new int[itemsPasillo.length + 1];
+            for (int a = 0; a < itemsPasillo.length; a++) {
+                inicioPasillo[a + 1] = inicioPasillo[a] + itemsPasillo[a].length;
+            }
+            int[] itemPasillo = new int[inicioPasillo[itemsPasillo.length]];
+            int[] cantidadPasillo = new int[itemPasillo.length];
+            for (int a = 0; a < itemsPasillo.length; a++) {
+                System.arraycopy(itemsPasillo[a], 0, itemPasillo, inicioPasillo[a], itemsPasillo[a].length);
+                System.arraycopy(cantidadesPasillo[a], 0, cantidadPasillo, inicioPasillo[a], itemsPasillo[a].length);
+            }
+            actual = new ChallengeInstance(nItems, inicioOrden, itemOrden, cantidadOrden,
+                    inicioPasillo, itemPasillo, cantidadPasillo, waveSizeLB, waveSizeUB);
+        }
+        return actual;
+    }
+
+    /**
+     * Heuristic wave on the current backlog, for the first solve.
+     */
+    private boolean[][] heuristica(TimeBudget presupuesto) {
+        long inicio = System.nanoTime();
+        boolean[][] inicial = new HeuristicSolver(actual(), SEED)
+                .resolver(Math.min(options.getHeuristicMillis(), presupuesto.restanteMs() / 2));
+        telemetria.fase("heuristica", (System.nanoTime() - inicio) / 1_000_000);
+        if (inicial != null) {
+            // Removed orders are empty in the heuristic instance, so it may have picked them
+            for (int o = quitadas.nextSetBit(0); o >= 0; o = quitadas.nextSetBit(o + 1)) {
+                inicial[0][o] = false;
+            }
+        }
+        return inicial;
+    }
+
+    /**
+     * The previous wave on the current backlog, or null if it cannot reach LB: same aisles, its orders that are still
+     * there, in id order, as long as they have stock and fit in UB, then the other orders, largest first, as
+     * {@code HeuristicSolver} fills a wave.
+     */
+    private boolean[][] reparar(boolean[][] anterior) {
+        int nOrdenes = itemsOrden.size();
+        boolean[] w = new boolean[nOrdenes];
+        boolean[] a = anterior[1].clone();
+        int[] libre = new int[nItems];
+        for (int p = 0; p < a.length; p++) {
+            if (a[p]) {
+                for (int k = 0; k < itemsPasillo[p].length; k++) {
+                    libre[itemsPasillo[p][k]] += cantidadesPasillo[p][k];
+                }
+            }
+        }
+        int[] unidadesOrden = new int[nOrdenes];
+        for (int o = 0; o < nOrdenes; o++) {
+            unidadesOrden[o] = Arrays.stream(cantidadesOrden.get(o)).sum();
+        }
+        int unidades = 0;
+        for (int o = 0; o < anterior[0].length; o++) {
+            if (anterior[0][o] && !quitadas.get(o) && tomar(o, unidadesOrden[o], unidades, libre)) {
+                w[o] = true;
+                unidades += unidadesOrden[o];
+            }
+        }
+        // Orders with more units first, ties by id
+        long[] candidatos = new long[nOrdenes];
+        int n = 0;
+        for (int o = 0; o < nOrdenes; o++) {
+            if (!w[o] && !quitadas.get(o)) {
+                candidatos[n++] = ((long) (Integer.MAX_VALUE - unidadesOrden[o]) << 32) | o;
+            }
+        }
+        Arrays.sort(candidatos, 0, n);
+        for (int k = 0; k < n && unidades < waveSizeUB; k++) {
+            int o = (int) candidatos[k];
+            if (tomar(o, unidadesOrden[o], unidades, libre)) {
+                w[o] = true;
+                unidades += unidadesOrden[o];
+            }
+        }
+        return unidades >= waveSizeLB ? new boolean[][]{w, a} : null;
+    }
+
+    /**
+     * Takes the stock of order {@code o} out of {@code libre} if the order fits in it and in UB.
+     */
+    private boolean tomar(int o, int unidadesOrden, int unidades, int[] libre) {
+        int[] items = itemsOrden.get(o);
+        int[] cantidades = cantidadesOrden.get(o);
+        if (unidades + unidadesOrden > waveSizeUB) {
+            return false;
+        }
+        for (int k = 0; k < items.length; k++) {
+            if (cantidades[k] > libre[items[k]]) {
+                return false;
+            }
+        }
+        for (int k = 0; k < items.length; k++) {
+            libre[items[k]] -= cantidades[k];
+        }
+        return true;
+    }
+
+    private boolean factible(ChallengeSolver evaluador, boolean[][] x) {
+        for (int o = quitadas.nextSetBit(0); o >= 0 && o < x[0].length; o = quitadas.nextSetBit(o + 1)) {
+            if (x[0][o]) {
+                return false;
+            }
+        }
+        return evaluador.isSolutionFeasible(comoSolucion(x));
+    }
+
+    private static ChallengeSolution comoSolucion(boolean[][] x) {
+        Set<Integer> orders = IntStream.range(0, x[0].length).filter(o -> x[0][o]).boxed().collect(Collectors.toSet());
+        Set<Integer> aisles = IntStream.range(0, x[1].length).filter(a -> x[1][a]).boxed().collect(Collectors.toSet());
+        return new ChallengeSolution(orders, aisles);
+    }
+}
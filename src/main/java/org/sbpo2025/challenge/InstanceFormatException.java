@@ -0,0 +1,26 @@
+package org.sbpo2025.challenge;
+
+import java.io.IOException;
+
+/**
+ * Thrown when an instance file does not follow the challenge input format. Line and column are 1-based.
+ */
+public class InstanceFormatException extends IOException {
+
+    private final int line;
+    private final int column;
+
+    public InstanceFormatException(String source, int line, int column, String message) {
+        super(String.format("%s:%d:%d: %s", source, line, column, message));
+        this.line = line;
+        this.column = column;
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    public int getColumn() {
+        return column;
+    }
+}
@@ -0,0 +1,231 @@
+package org.sbpo2025.challenge;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Writes random instances in the challenge input format, reproducible from a seed.
+ * <p>
+ * Orders ask for 1 to 3 units of a few items, aisles hold 1 to 10 units of more items, and each row lists distinct
+ * items. Item popularity follows a Zipf law of exponent {@link #setSkew(double) skew} (0 is uniform), the same for
+ * orders and aisles so that stock follows demand. LB and UB are shares of the total demand, as in the dataset.
+ * <p>
+ * Rows are written as they are drawn, and the total demand is known when the last line is due, so memory is
+ * O(items) whatever the number of entries.
+ */
+public final class InstanceGenerator {
+
+    private static final int MAX_UNIDADES_ORDEN = 3;
+    private static final int MAX_UNIDADES_PASILLO = 10;
+    /** Draws of a skewed row before its last items are taken in item order. */
+    private static final int INTENTOS_POR_ITEM = 20;
+
+    private final int orders;
+    private final int aisles;
+    private final int items;
+    private long seed = 2025;
+    private int itemsPerOrder = 3;
+    private int itemsPerAisle = 20;
+    private double skew;
+    private double lbShare = 0.05;
+    private double ubShare = 0.10;
+
+    public InstanceGenerator(int orders, int aisles, int items) {
+        if (orders < 1 || aisles < 1 || items < 1) {
+            throw new IllegalArgumentException(String.format("orders, aisles and items must be positive, got %dx%dx%d",
+                    orders, aisles, items));
+        }
+        this.orders = orders;
+        this.aisles = aisles;
+        this.items = items;
+    }
+
+    /**
+     * Shape {@code ORDERSxAISLESxITEMS}, e.g. {@code 20000x1000x5000}.
+     */
+    public static InstanceGenerator ofShape(String shape) {
+        String[] parts = shape.split("x");
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Expected ORDERSxAISLESxITEMS, got " + shape);
+        }
+        return new InstanceGenerator(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), Integer.parseInt(parts[2]));
+    }
+
+    public InstanceGenerator setSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    /**
+     * Average number of items of an order; the actual one is uniform in {@code [1, 2 * n - 1]}.
+     */
+    public InstanceGenerator setItemsPerOrder(int itemsPerOrder) {
+        this.itemsPerOrder = Math.max(1, itemsPerOrder);
+        return this;
+    }
+
+    /**
+     * Average number of items of an aisle; the actual one is uniform in {@code [1, 2 * n - 1]}.
+     */
+    public InstanceGenerator setItemsPerAisle(int itemsPerAisle) {
+        this.itemsPerAisle = Math.max(1, itemsPerAisle);
+        return this;
+    }
+
+    /**
+     * Zipf exponent of item popularity: item {@code i} is drawn with weight {@code 1 / (i + 1)^skew}.
+     */
+    public InstanceGenerator setSkew(double skew) {
+        this.skew = Math.max(0, skew);
+        return this;
+    }
+
+    /**
+     * LB and UB as shares of the units asked for by all orders.
+     */
+    public InstanceGenerator setWaveBounds(double lbShare, double ubShare) {
+        if (lbShare < 0 || ubShare < lbShare) {
+            throw new IllegalArgumentException(String.format("Wave bounds need 0 <= LB <= UB, got %s and %s", lbShare, ubShare));
+        }
+        this.lbShare = lbShare;
+        this.ubShare = ubShare;
+        return this;
+    }
+
+    /**
+     * Writes the instance to {@code path} and returns the number of (item, quantity) entries.
+     */
+    public long write(Path path) throws IOException {
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(path), StandardCharsets.US_ASCII), 1 << 16)) {
+            return write(writer);
+        }
+    }
+
+    long write(Writer writer) throws IOException {
+        SplittableRandom random = new SplittableRandom(seed);
+        double[] acumulada = skew > 0 ? zipf() : null;
+        int[] marca = new int[items];
+        Arrays.fill(marca, -1);
+        int[] fila = new int[items];
+        long entradas = 0;
+        long demanda = 0;
+
+        writer.write(orders + " " + items + " " + aisles + "\n");
+        for (int r = 0; r < orders + aisles; r++) {
+            boolean orden = r < orders;
+            int k = largo(random, orden ? itemsPerOrder : itemsPerAisle);
+            elegir(random, acumulada, k, r, marca, fila);
+            writer.write(Integer.toString(k));
+            for (int j = 0; j < k; j++) {
+                int cantidad = 1 + random.nextInt(orden ? MAX_UNIDADES_ORDEN : MAX_UNIDADES_PASILLO);
+                if (orden) {
+                    demanda += cantidad;
+                }
+                writer.write(' ');
+                writer.write(Integer.toString(fila[j]));
+                writer.write(' ');
+                writer.write(Integer.toString(cantidad));
+            }
+            writer.write('\n');
+            entradas += k;
+        }
+        long lb = Math.max(1, Math.round(demanda * lbShare));
+        long ub = Math.max(lb, Math.round(demanda * ubShare));
+        writer.write(Math.min(lb, Integer.MAX_VALUE) + " " + Math.min(ub, Integer.MAX_VALUE) + "\n");
+        return entradas;
+    }
+
+    private int largo(SplittableRandom random, int promedio) {
+        return Math.min(items, 1 + random.nextInt(2 * promedio - 1));
+    }
+
+    /**
+     * Cumulative Zipf weights, normalized to end at 1.
+     */
+    private double[] zipf() {
+        double[] acumulada = new double[items];
+        double total = 0;
+        for (int i = 0; i < items; i++) {
+            total += 1 / Math.pow(i + 1, skew);
+            acumulada[i] = total;
+        }
+        for (int i = 0; i < items; i++) {
+            acumulada[i] /= total;
+        }
+        return acumulada;
+    }
+
+    /**
+     * Puts {@code k} distinct items in {@code fila[0..k)}. Under heavy skew the last ones may be hard to draw, so
+     * after a number of repeats the row is completed with the next unused items from a random point.
+     */
+    private void elegir(SplittableRandom random, double[] acumulada, int k, int r, int[] marca, int[] fila) {
+        int n = 0;
+        for (int intentos = 0; n < k && intentos < INTENTOS_POR_ITEM * k; intentos++) {
+            int item = acumulada == null ? random.nextInt(items) : buscar(acumulada, random.nextDouble());
+            if (marca[item] != r) {
+                marca[item] = r;
+                fila[n++] = item;
+            }
+        }
+        for (int item = random.nextInt(items); n < k; item = (item + 1) % items) {
+            if (marca[item] != r) {
+                marca[item] = r;
+                fila[n++] = item;
+            }
+        }
+    }
+
+    private static int buscar(double[] acumulada, double u) {
+        int i = Arrays.binarySearch(acumulada, u);
+        return Math.min(acumulada.length - 1, i >= 0 ? i : -i - 1);
+    }
+
+    /**
+     * {@code java -cp ChallengeSBPO2025-1.0.jar org.sbpo2025.challenge.InstanceGenerator <output> ORDERSxAISLESxITEMS [options]}
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: InstanceGenerator <outputFilePath> ORDERSxAISLESxITEMS [--seed N] [--items-per-order N]"
+                    + " [--items-per-aisle N] [--skew S] [--lb-share F] [--ub-share F]");
+            return;
+        }
+        InstanceGenerator generator;
+        try {
+            generator = ofShape(args[1]);
+            double lbShare = generator.lbShare;
+            double ubShare = generator.ubShare;
+            for (int k = 2; k < args.length; k++) {
+                String flag = args[k];
+                if (k + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value for " + flag);
+                }
+                String value = args[++k];
+                switch (flag) {
+                    case "--seed" -> generator.setSeed(Long.parseLong(value));
+                    case "--items-per-order" -> generator.setItemsPerOrder(Integer.parseInt(value));
+                    case "--items-per-aisle" -> generator.setItemsPerAisle(Integer.parseInt(value));
+                    case "--skew" -> generator.setSkew(Double.parseDouble(value));
+                    case "--lb-share" -> lbShare = Double.parseDouble(value);
+                    case "--ub-share" -> ubShare = Double.parseDouble(value);
+                    default -> throw new IllegalArgumentException("Unknown option " + flag);
+                }
+            }
+            generator.setWaveBounds(lbShare, ubShare);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+            return;
+        }
+        long inicio = System.nanoTime();
+        long entradas = generator.write(Path.of(args[0]));
+        System.out.println(String.format("%s: %d entradas en %d ms", args[0], entradas, (System.nanoTime() - inicio) / 1_000_000));
+    }
+}
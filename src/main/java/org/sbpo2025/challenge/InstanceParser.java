@@ -0,0 +1,196 @@
+package org.sbpo2025.challenge;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Reads an instance file straight into the CSR arrays of {@link ChallengeInstance}.
+ * <p>
+ * The file is memory-mapped and scanned byte by byte, so no String is created per token. The format is the one of
+ * the challenge: a header line {@code nOrders nItems nAisles}, one line per order and per aisle with
+ * {@code k item_1 qty_1 ... item_k qty_k}, and a last line {@code LB UB}. Like the original line reader, extra
+ * tokens at the end of a line are ignored and a repeated item inside a row keeps its last quantity.
+ */
+public final class InstanceParser {
+
+    private final String source;
+    private final MappedByteBuffer buffer;
+    private final int size;
+    private int pos;
+    private int line = 1;
+    private int lineStart;
+
+    private InstanceParser(String source, MappedByteBuffer buffer) {
+        this.source = source;
+        this.buffer = buffer;
+        this.size = buffer.limit();
+    }
+
+    public static ChallengeInstance parse(String inputFilePath) throws IOException {
+        return parse(Path.of(inputFilePath));
+    }
+
+    public static ChallengeInstance parse(Path path) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length > Integer.MAX_VALUE) {
+                throw new IOException(path + ": instance files larger than 2 GB are not supported");
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+        } catch (NoSuchFileException e) {
+            throw new IOException(path + ": file not found", e);
+        }
+        return new InstanceParser(path.getFileName().toString(), buffer).readInstance();
+    }
+
+    private ChallengeInstance readInstance() throws IOException {
+        int nOrders = nextInt("number of orders");
+        int nItems = nextInt("number of items");
+        int nAisles = nextInt("number of aisles");
+        endLine();
+
+        // Guess of the entries per row from the file size; the arrays grow if it falls short
+        int capacity = Math.max(16, size / 8);
+        int[] seenRow = new int[nItems];
+        int[] seenPos = new int[nItems];
+        Arrays.fill(seenRow, -1);
+
+        Rows orders = readRows(nOrders, nItems, capacity, seenRow, seenPos, 0, "order");
+        Rows aisles = readRows(nAisles, nItems, capacity, seenRow, seenPos, nOrders, "aisle");
+
+        int waveSizeLB = nextInt("wave size lower bound");
+        int waveSizeUB = nextInt("wave size upper bound");
+        endLine();
+
+        return new ChallengeInstance(nItems,
+                orders.start, orders.trimmedItems(), orders.trimmedQuantities(),
+                aisles.start, aisles.trimmedItems(), aisles.trimmedQuantities(),
+                waveSizeLB, waveSizeUB);
+    }
+
+    private Rows readRows(int nRows, int nItems, int capacity, int[] seenRow, int[] seenPos, int rowOffset,
+                          String kind) throws IOException {
+        Rows rows = new Rows(nRows, capacity);
+        for (int r = 0; r < nRows; r++) {
+            int count = nextInt("number of items of " + kind + " " + r);
+            for (int k = 0; k < count; k++) {
+                int itemLine = line;
+                int itemColumn = column();
+                int item = nextInt("item id");
+                if (item >= nItems) {
+                    throw new InstanceFormatException(source, itemLine, itemColumn,
+                            String.format("item %d of %s %d is out of range [0, %d)", item, kind, r, nItems));
+                }
+                int quantity = nextInt("item quantity");
+                if (seenRow[item] == rowOffset + r) {
+                    rows.quantity[seenPos[item]] = quantity;
+                } else {
+                    seenRow[item] = rowOffset + r;
+                    seenPos[item] = rows.add(item, quantity);
+                }
+            }
+            rows.start[r + 1] = rows.size;
+            endLine();
+        }
+        return rows;
+    }
+
+    /**
+     * Reads the next non-negative integer on the current line.
+     */
+    private int nextInt(String what) throws InstanceFormatException {
+        skipBlanks();
+        if (pos >= size || buffer.get(pos) == '\n' || buffer.get(pos) == '\r') {
+            throw error("expected " + what + " but found " + (pos >= size ? "end of file" : "end of line"));
+        }
+        int startColumn = column();
+        long value = 0;
+        byte b = buffer.get(pos);
+        if (b < '0' || b > '9') {
+            throw error("expected " + what + " but found '" + (char) b + "'");
+        }
+        while (pos < size && (b = buffer.get(pos)) >= '0' && b <= '9') {
+            value = value * 10 + (b - '0');
+            if (value > Integer.MAX_VALUE) {
+                throw new InstanceFormatException(source, line, startColumn, what + " does not fit in an int");
+            }
+            pos++;
+        }
+        if (pos < size && !isBlank(b) && b != '\n' && b != '\r') {
+            throw error("unexpected character '" + (char) b + "' in " + what);
+        }
+        return (int) value;
+    }
+
+    /**
+     * Skips whatever is left of the current line and moves to the next one.
+     */
+    private void endLine() {
+        while (pos < size && buffer.get(pos) != '\n') {
+            pos++;
+        }
+        if (pos < size) {
+            pos++;
+            line++;
+            lineStart = pos;
+        }
+    }
+
+    private void skipBlanks() {
+        while (pos < size && isBlank(buffer.get(pos))) {
+            pos++;
+        }
+    }
+
+    private static boolean isBlank(byte b) {
+        return b == ' ' || b == '\t';
+    }
+
+    private int column() {
+        return pos - lineStart + 1;
+    }
+
+    private InstanceFormatException error(String message) {
+        return new InstanceFormatException(source, line, column(), message);
+    }
+
+    /**
+     * Growable CSR rows.
+     */
+    private static final class Rows {
+        final int[] start;
+        int[] item;
+        int[] quantity;
+        int size;
+
+        Rows(int nRows, int capacity) {
+            this.start = new int[nRows + 1];
+            this.item = new int[capacity];
+            this.quantity = new int[capacity];
+        }
+
+        int add(int itemId, int itemQuantity) {
+            if (size == item.length) {
+                item = Arrays.copyOf(item, 2 * size);
+                quantity = Arrays.copyOf(quantity, 2 * size);
+            }
+            item[size] = itemId;
+            quantity[size] = itemQuantity;
+            return size++;
+        }
+
+        int[] trimmedItems() {
+            return size == item.length ? item : Arrays.copyOf(item, size);
+        }
+
+        int[] trimmedQuantities() {
+            return size == quantity.length ? quantity : Arrays.copyOf(quantity, size);
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package org.sbpo2025.challenge;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import ilog.concert.IloException;
+import ilog.concert.IloObjective;
+import ilog.cplex.IloCplex;
+
+/**
+ * Improves a wave by solving small sub-MIPs around it, on several workers at once.
+ * <p>
+ * Each round takes the best wave of the {@link SharedIncumbent} and frees a neighborhood: an aisle of the wave, up to
+ * {@code k - 1} more aisles that stock some of its items (any aisles once those run out), and every order that asks
+ * for an item of a freed aisle.
+ * Everything else is fixed to its value in the wave, and the sub-MIP maximizes {@code units - best * aisles}. Its
+ * incumbent is kept if its own ratio beats the best one: with q aisles a better wave is worth at least 1 / q, which
+ * the gap of the sub-MIPs can hide on large instances, so the value itself is not trusted. {@code k} grows when the sub-MIPs are solved to optimality well within their
+ * time and shrinks when they hit the limit. Each worker keeps one full model and only moves variable bounds between
+ * rounds.
+ */
+final class LargeNeighborhoodSearch {
+
+    private static final double TOLERANCE = Math.exp(-6);
+    /** Relative gap CPLEX uses by default. */
+    private static final double GAP_RELATIVO = 1e-4;
+    /** Time of one sub-MIP; the budget hands it out as long as it lasts. */
+    private static final long SUBMIP_MS = 5000;
+    private static final int VECINDARIO_INICIAL = 8;
+    private static final int VECINDARIO_MINIMO = 2;
+    /** A worker gives up after this many rounds in a row without a better wave. */
+    private static final int RONDAS_SIN_MEJORA = 200;
+
+    private final ChallengeInstance instance;
+    private final WaveMatrix base;
+    private final int workers;
+    private final int threadsPorWorker;
+    private final SharedIncumbent mejor;
+    private final TimeBudget presupuesto;
+    private final SolverTelemetry telemetria;
+    private final long seed;
+    private final AtomicInteger rondas = new AtomicInteger();
+    private final AtomicInteger mejoras = new AtomicInteger();
+    /** Set when a sub-MIP over every aisle and order, solved with no gap, proves that no wave beats the best one. */
+    private volatile boolean probado;
+
+    LargeNeighborhoodSearch(ChallengeInstance instance, WaveMatrix base, int workers, int threads, SharedIncumbent mejor,
+                            TimeBudget presupuesto, SolverTelemetry telemetria, long seed) {
+        this.instance = instance;
+        this.base = base;
+        this.workers = Math.max(1, workers);
+        this.threadsPorWorker = Math.max(1, threads / this.workers);
+        this.mejor = mejor;
+        this.presupuesto = presupuesto;
+        this.telemetria = telemetria;
+        this.seed = seed;
+    }
+
+    List<List<Boolean>> resolver() throws IloException {
+        long inicio = System.nanoTime();
+        double ratioInicial = mejor.ratio();
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        try {
+            List<Future<Void>> tareas = new ArrayList<>();
+            for (int w = 0; w < workers; w++) {
+                int id = w;
+                tareas.add(pool.submit(() -> {
+                    buscar(id);
+                    return null;
+                }));
+            }
+            for (Future<Void> tarea : tareas) {
+                tarea.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IloException("LNS interrumpido");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IloException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new RuntimeException(e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        telemetria.mensaje("LNS: %d workers x %d threads, %d rondas, %d mejoras, ratio %f -> %f, %d ms",
+                workers, threadsPorWorker, rondas.get(), mejoras.get(), ratioInicial, mejor.ratio(),
+                (System.nanoTime() - inicio) / 1_000_000);
+        return WaveModel.comoListas(mejor.solucion());
+    }
+
+    private void buscar(int id) throws IloException {
+        SplittableRandom random = new SplittableRandom(seed + id);
+        boolean[] ordenLibre = new boolean[instance.nOrders()];
+        boolean[] pasilloLibre = new boolean[instance.nAisles()];
+        int[] vecinos = new int[instance.nAisles()];
+        int k = Math.min(VECINDARIO_INICIAL, instance.nAisles());
+
+        IloCplex prob = new IloCplex();
+        try {
+            prob.setOut(telemetria.salidaCplex());
+            prob.setParam(IloCplex.Param.Threads, threadsPorWorker);
+            prob.setParam(IloCplex.Param.MIP.Tolerances.AbsMIPGap, TOLERANCE);
+            WaveModel modelo = WaveModel.build(prob, base).conTelemetria(telemetria);
+            prob.addGe(modelo.sumaDeA, 1);
+            IloObjective objetivo = prob.addMaximize(prob.sum(modelo.suma, prob.prod(-mejor.ratio(), modelo.sumaDeA)));
+            double[] coefsA = new double[modelo.listaA.length];
+
+            int sinMejora = 0;
+            while (presupuesto.hayTiempo() && !probado && sinMejora < RONDAS_SIN_MEJORA) {
+                double lambda = mejor.ratio();
+                boolean[][] ola = mejor.solucion();
+                int libres = vecindario(ola, k, random, vecinos, ordenLibre, pasilloLibre);
+                modelo.fijar(ola, ordenLibre, pasilloLibre);
+                Arrays.fill(coefsA, -lambda);
+                prob.setLinearCoefs(objetivo, coefsA, modelo.listaA);
+                modelo.agregarMipStart(ola, IloCplex.MIPStartEffort.CheckFeas);
+
+                int ronda = rondas.incrementAndGet();
+                long restantes = Math.max(1, presupuesto.restanteMs() / SUBMIP_MS);
+                long t0 = System.nanoTime();
+                boolean resuelto = modelo.resolver(String.format("lns %d.%d k=%d", id, ronda, libres), presupuesto,
+                        (int) Math.min(Integer.MAX_VALUE, restantes));
+                long ms = (System.nanoTime() - t0) / 1_000_000;
+                boolean optimo = resuelto && prob.getStatus() == IloCplex.Status.Optimal;
+
+                sinMejora++;
+                if (resuelto && mejorar(id, prob, modelo, lambda, libres)) {
+                    sinMejora = 0;
+                } else if (optimo && libres == instance.nAisles() && todas(ordenLibre)) {
+                    probado = probar(id, ronda, prob, modelo, lambda, libres);
+                }
+                // Grow while the sub-MIPs close fast, shrink when they run out of time
+                if (optimo && ms < SUBMIP_MS / 2) {
+                    k = Math.min(instance.nAisles(), k + Math.max(1, k / 2));
+                } else if (!optimo) {
+                    k = Math.max(VECINDARIO_MINIMO, k * 2 / 3);
+                }
+            }
+        } finally {
+            prob.end();
+        }
+    }
+
+    /**
+     * Offers the incumbent of the last solve if its ratio beats {@code lambda}, and returns whether it became the
+     * best wave.
+     */
+    private boolean mejorar(int id, IloCplex prob, WaveModel modelo, double lambda, int libres) throws IloException {
+        double ratio = prob.getValue(modelo.suma) / prob.getValue(modelo.sumaDeA);
+        if (ratio <= lambda || !mejor.ofrecer(ratio, modelo.incumbente())) {
+            return false;
+        }
+        mejoras.incrementAndGet();
+        telemetria.mensaje("LNS worker %d: ratio %f con k=%d", id, ratio, libres);
+        return true;
+    }
+
+    /**
+     * Solves the fully freed model again with no gap, and returns whether that proves no wave beats {@code lambda}.
+     * A better wave it finds is offered instead.
+     */
+    private boolean probar(int id, int ronda, IloCplex prob, WaveModel modelo, double lambda, int libres) throws IloException {
+        prob.setParam(IloCplex.Param.MIP.Tolerances.AbsMIPGap, 0);
+        prob.setParam(IloCplex.Param.MIP.Tolerances.MIPGap, 0);
+        try {
+            boolean resuelto = modelo.resolver(String.format("lns %d.%d sin gap", id, ronda), presupuesto, 1);
+            if (!resuelto || mejorar(id, prob, modelo, lambda, libres)) {
+                return false;
+            }
+            return prob.getStatus() == IloCplex.Status.Optimal;
+        } finally {
+            prob.setParam(IloCplex.Param.MIP.Tolerances.AbsMIPGap, TOLERANCE);
+            prob.setParam(IloCplex.Param.MIP.Tolerances.MIPGap, GAP_RELATIVO);
+        }
+    }
+
+    private static boolean todas(boolean[] x) {
+        for (boolean b : x) {
+            if (!b) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Marks the aisles and orders of a neighborhood of {@code ola} as free and returns how many aisles it has.
+     */
+    private int vecindario(boolean[][] ola, int k, SplittableRandom random, int[] vecinos, boolean[] ordenLibre,
+                           boolean[] pasilloLibre) {
+        Arrays.fill(ordenLibre, false);
+        Arrays.fill(pasilloLibre, false);
+
+        int abiertos = MipStarts.contar(ola[1]);
+        int semilla = -1;
+        for (int p = 0, n = random.nextInt(Math.max(1, abiertos)); p < ola[1].length; p++) {
+            if (ola[1][p] && n-- == 0) {
+                semilla = p;
+                break;
+            }
+        }
+        if (semilla < 0) {
+            semilla = random.nextInt(instance.nAisles());
+        }
+
+        // Aisles sharing an item with the seed, picked at random until there are k
+        pasilloLibre[semilla] = true;
+        int nVecinos = 0;
+        for (int j = instance.aisleStart(semilla); j < instance.aisleEnd(semilla); j++) {
+            int i = instance.aisleItem(j);
+            for (int q = instance.itemAislesStart(i); q < instance.itemAislesEnd(i); q++) {
+                int p = instance.itemAisle(q);
+                if (!pasilloLibre[p]) {
+                    pasilloLibre[p] = true;
+                    vecinos[nVecinos++] = p;
+                }
+            }
+        }
+        for (int v = 0; v < nVecinos; v++) {
+            pasilloLibre[vecinos[v]] = false;
+        }
+        int libres = 1;
+        for (int v = 0; v < nVecinos && libres < k; v++) {
+            int elegido = v + random.nextInt(nVecinos - v);
+            int p = vecinos[elegido];
+            vecinos[elegido] = vecinos[v];
+            vecinos[v] = p;
+            pasilloLibre[p] = true;
+            libres++;
+        }
+        // Neighborhoods larger than the aisles around the seed take the rest from anywhere
+        for (int v = 0, desde = random.nextInt(instance.nAisles()); v < instance.nAisles() && libres < k; v++) {
+            int p = (desde + v) % instance.nAisles();
+            if (!pasilloLibre[p]) {
+                pasilloLibre[p] = true;
+                libres++;
+            }
+        }
+
+        // Orders on the items of the freed aisles
+        for (int p = 0; p < pasilloLibre.length; p++) {
+            if (!pasilloLibre[p]) {
+                continue;
+            }
+            for (int j = instance.aisleStart(p); j < instance.aisleEnd(p); j++) {
+                int i = instance.aisleItem(j);
+                for (int q = instance.itemOrdersStart(i); q < instance.itemOrdersEnd(i); q++) {
+                    ordenLibre[instance.itemOrder(q)] = true;
+                }
+            }
+        }
+        return libres;
+    }
+}
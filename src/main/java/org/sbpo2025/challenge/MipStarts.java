@@ -0,0 +1,240 @@
+package org.sbpo2025.challenge;
+
+import java.util.Comparator;
+import java.util.stream.IntStream;
+
+/**
+ * Cheap starting points for the MIPs, as {W, A} boolean arrays.
+ * <p>
+ * Between two solves of a formulation only the aisle count (sweep) or the target ratio (binary search) changes, so
+ * the last incumbent is usually one or two moves away from a feasible start of the next solve. When there is no
+ * incumbent yet, the same routines start from an empty wave.
+ */
+final class MipStarts {
+
+    private final ChallengeInstance instance;
+    /** Orders by decreasing units, the order in which the greedy fill tries them. */
+    private final int[] ordenesPorUnidades;
+    /** Aisles by decreasing total stock, the order in which new aisles are opened. */
+    private final int[] pasillosPorStock;
+    private final int[] stockPasillo;
+
+    MipStarts(ChallengeInstance instance) {
+        this.instance = instance;
+        this.ordenesPorUnidades = IntStream.range(0, instance.nOrders()).boxed()
+                .sorted(Comparator.comparingInt(o -> -instance.orderUnits(o)))
+                .mapToInt(Integer::intValue).toArray();
+        this.stockPasillo = new int[instance.nAisles()];
+        for (int a = 0; a < instance.nAisles(); a++) {
+            for (int k = instance.aisleStart(a); k < instance.aisleEnd(a); k++) {
+                stockPasillo[a] += instance.aisleQuantity(k);
+            }
+        }
+        this.pasillosPorStock = IntStream.range(0, instance.nAisles()).boxed()
+                .sorted(Comparator.comparingInt(a -> -stockPasillo[a]))
+                .mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Start with exactly {@code aPrima} aisles. Keeps the orders of {@code inicio} that still have stock, opens or
+     * closes aisles as needed and fills the remaining capacity greedily. {@code inicio} may be null.
+     */
+    boolean[][] conPasillos(boolean[][] inicio, int aPrima) {
+        boolean[] w = inicio == null ? new boolean[instance.nOrders()] : inicio[0].clone();
+        boolean[] a = inicio == null ? new boolean[instance.nAisles()] : inicio[1].clone();
+        ajustarPasillos(a, aPrima);
+
+        int[] disponible = disponible(a);
+        int unidades = 0;
+        for (int o = 0; o < w.length; o++) {
+            if (w[o]) {
+                unidades += instance.orderUnits(o);
+                restar(disponible, o);
+            }
+        }
+        // Drop orders that no longer have stock, then fill the free capacity
+        for (int k = ordenesPorUnidades.length - 1; k >= 0; k--) {
+            int o = ordenesPorUnidades[k];
+            if (w[o] && tieneDeficit(disponible, o)) {
+                w[o] = false;
+                unidades -= instance.orderUnits(o);
+                sumar(disponible, o);
+            }
+        }
+        for (int o : ordenesPorUnidades) {
+            if (!w[o] && unidades + instance.orderUnits(o) <= instance.waveSizeUB() && entra(disponible, o)) {
+                w[o] = true;
+                unidades += instance.orderUnits(o);
+                restar(disponible, o);
+            }
+        }
+        return new boolean[][]{w, a};
+    }
+
+    /**
+     * Start for the binary-search model at ratio {@code k}: units and aisle count must satisfy
+     * {@code -epsilon <= k * aisles - units <= epsilon - 0.01}. Stock violations are absorbed by the slack {@code z},
+     * so only the wave size and the ratio window are repaired. Returns null if no nearby aisle count can be hit.
+     */
+    boolean[][] conRatio(boolean[][] inicio, double k, double epsilon) {
+        boolean[] base = inicio == null ? conPasillos(null, 1)[0] : inicio[0];
+        int unidadesBase = 0;
+        for (int o = 0; o < base.length; o++) {
+            if (base[o]) {
+                unidadesBase += instance.orderUnits(o);
+            }
+        }
+        // Aisle count that matches the current units, once they are brought inside [LB, UB]
+        int unidadesObjetivo = Math.max(Math.max(instance.waveSizeLB(), 1), Math.min(unidadesBase, instance.waveSizeUB()));
+        int centro = (int) Math.max(1, Math.min(instance.nAisles(), Math.round(unidadesObjetivo / k)));
+        for (int c : new int[]{centro, centro - 1, centro + 1, centro - 2, centro + 2}) {
+            if (c < 1 || c > instance.nAisles()) {
+                continue;
+            }
+            long bajo = Math.max(instance.waveSizeLB(), (long) Math.ceil(k * c - epsilon + 0.01));
+            long alto = Math.min(instance.waveSizeUB(), (long) Math.floor(k * c + epsilon));
+            if (bajo > alto) {
+                continue;
+            }
+            boolean[] w = base.clone();
+            if (ajustarUnidades(w, unidadesBase, bajo, alto)) {
+                boolean[] a = inicio == null ? new boolean[instance.nAisles()] : inicio[1].clone();
+                ajustarPasillos(a, c);
+                return new boolean[][]{w, a};
+            }
+        }
+        return null;
+    }
+
+    int unidades(boolean[] w) {
+        int unidades = 0;
+        for (int o = 0; o < w.length; o++) {
+            if (w[o]) {
+                unidades += instance.orderUnits(o);
+            }
+        }
+        return unidades;
+    }
+
+    /**
+     * Value of the slack {@code z} for a start: the largest stock deficit over all items.
+     */
+    int deficitMaximo(boolean[] w, boolean[] a) {
+        int[] disponible = disponible(a);
+        for (int o = 0; o < w.length; o++) {
+            if (w[o]) {
+                restar(disponible, o);
+            }
+        }
+        int deficit = 0;
+        for (int d : disponible) {
+            deficit = Math.max(deficit, -d);
+        }
+        return deficit;
+    }
+
+    private boolean ajustarUnidades(boolean[] w, int unidades, long bajo, long alto) {
+        // Too many units: drop the largest orders that keep us above the window
+        for (int o : ordenesPorUnidades) {
+            if (unidades <= alto) {
+                break;
+            }
+            if (w[o] && unidades - instance.orderUnits(o) >= bajo) {
+                w[o] = false;
+                unidades -= instance.orderUnits(o);
+            }
+        }
+        // Too few: add the largest orders that keep us below it
+        for (int o : ordenesPorUnidades) {
+            if (unidades >= bajo) {
+                break;
+            }
+            if (!w[o] && unidades + instance.orderUnits(o) <= alto) {
+                w[o] = true;
+                unidades += instance.orderUnits(o);
+            }
+        }
+        return unidades >= bajo && unidades <= alto;
+    }
+
+    private void ajustarPasillos(boolean[] a, int objetivo) {
+        int usados = 0;
+        for (boolean usado : a) {
+            if (usado) {
+                usados++;
+            }
+        }
+        for (int k = 0; k < pasillosPorStock.length && usados < objetivo; k++) {
+            if (!a[pasillosPorStock[k]]) {
+                a[pasillosPorStock[k]] = true;
+                usados++;
+            }
+        }
+        for (int k = pasillosPorStock.length - 1; k >= 0 && usados > objetivo; k--) {
+            if (a[pasillosPorStock[k]]) {
+                a[pasillosPorStock[k]] = false;
+                usados--;
+            }
+        }
+    }
+
+    private int[] disponible(boolean[] a) {
+        int[] disponible = new int[instance.nItems()];
+        for (int p = 0; p < a.length; p++) {
+            if (a[p]) {
+                for (int k = instance.aisleStart(p); k < instance.aisleEnd(p); k++) {
+                    disponible[instance.aisleItem(k)] += instance.aisleQuantity(k);
+                }
+            }
+        }
+        return disponible;
+    }
+
+    private boolean entra(int[] disponible, int o) {
+        for (int k = instance.orderStart(o); k < instance.orderEnd(o); k++) {
+            if (disponible[instance.orderItem(k)] < instance.orderQuantity(k)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean tieneDeficit(int[] disponible, int o) {
+        for (int k = instance.orderStart(o); k < instance.orderEnd(o); k++) {
+            if (disponible[instance.orderItem(k)] < 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void restar(int[] disponible, int o) {
+        for (int k = instance.orderStart(o); k < instance.orderEnd(o); k++) {
+            disponible[instance.orderItem(k)] -= instance.orderQuantity(k);
+        }
+    }
+
+    private void sumar(int[] disponible, int o) {
+        for (int k = instance.orderStart(o); k < instance.orderEnd(o); k++) {
+            disponible[instance.orderItem(k)] += instance.orderQuantity(k);
+        }
+    }
+
+    static double[] comoValores(boolean[] x) {
+        double[] valores = new double[x.length];
+        for (int k = 0; k < x.length; k++) {
+            valores[k] = x[k] ? 1 : 0;
+        }
+        return valores;
+    }
+
+    static int contar(boolean[] x) {
+        int n = 0;
+        for (boolean b : x) {
+            if (b) {
+                n++;
+            }
+        }
+        return n;
+    }
+}
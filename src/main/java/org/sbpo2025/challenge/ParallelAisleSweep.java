@@ -0,0 +1,158 @@
+package org.sbpo2025.challenge;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import ilog.concert.IloConstraint;
+import ilog.concert.IloException;
+import ilog.cplex.IloCplex;
+
+/**
+ * {@code planteoPasillosFijos} split over a pool of workers, each with its own {@link IloCplex}.
+ * <p>
+ * Workers take the next aisle count from a shared counter, in the order of {@link AisleCountBounds}, and share the
+ * best ratio through a {@link SharedIncumbent}. The sweep ends at the first count whose bound cannot beat the best
+ * ratio; every other count is solved with a lower cutoff of {@code best * aPrima} so that CPLEX drops nodes that
+ * cannot match it. The returned wave has the same ratio as the one of the sequential sweep. If every count was solved
+ * to optimality or pruned, the best ratio is marked optimal on the {@link SharedIncumbent}.
+ */
+final class ParallelAisleSweep {
+
+    private static final double TOLERANCE = Math.exp(-6);
+    private static final double CUTOFF_SLACK = 1e-6;
+
+    private final ChallengeInstance instance;
+    private final WaveMatrix base;
+    private final int workers;
+    private final int threadsPorWorker;
+    private final SharedIncumbent mejor;
+    private final TimeBudget presupuesto;
+    private final SolverTelemetry telemetria;
+    private final AisleCountBounds cotas;
+    private final AtomicInteger siguiente = new AtomicInteger();
+    private final AtomicInteger solves = new AtomicInteger();
+    private final AtomicInteger podados = new AtomicInteger();
+    /** Whether no count was left unsolved or cut short so far. */
+    private final AtomicBoolean completo = new AtomicBoolean(true);
+
+    /**
+     * @param base    columns and stock rows shared by the models of the workers
+     * @param workers number of models solved at the same time
+     * @param threads total number of CPLEX threads, split evenly between the workers
+     */
+    ParallelAisleSweep(ChallengeInstance instance, WaveMatrix base, int workers, int threads, SharedIncumbent mejor,
+                       TimeBudget presupuesto, SolverTelemetry telemetria) {
+        this.instance = instance;
+        this.base = base;
+        this.workers = Math.max(1, Math.min(workers, instance.nAisles()));
+        this.threadsPorWorker = Math.max(1, threads / this.workers);
+        this.mejor = mejor;
+        this.presupuesto = presupuesto;
+        this.telemetria = telemetria;
+        this.cotas = new AisleCountBounds(instance);
+    }
+
+    List<List<Boolean>> resolver() throws IloException {
+        long inicio = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        try {
+            List<Future<Void>> tareas = new ArrayList<>();
+            for (int w = 0; w < workers; w++) {
+                int id = w;
+                tareas.add(pool.submit(() -> {
+                    barrer(id);
+                    return null;
+                }));
+            }
+            for (Future<Void> tarea : tareas) {
+                tarea.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IloException("Barrido paralelo interrumpido");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IloException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new RuntimeException(e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        telemetria.mensaje("Barrido paralelo: %d workers x %d threads, %d solves, %d podados, %d ms",
+                workers, threadsPorWorker, solves.get(), podados.get(), (System.nanoTime() - inicio) / 1_000_000);
+        if (completo.get() && mejor.solucion() != null) {
+            mejor.marcarOptima();
+        }
+
+        boolean[][] solucion = mejor.solucion();
+        return solucion == null ? List.of(List.of(), List.of()) : WaveModel.comoListas(solucion);
+    }
+
+    private void barrer(int id) throws IloException {
+        IloCplex prob = new IloCplex();
+        try {
+            prob.setOut(telemetria.salidaCplex());
+            presupuesto.vigilar(prob);
+            prob.setParam(IloCplex.Param.Threads, threadsPorWorker);
+            prob.setParam(IloCplex.Param.MIP.Tolerances.AbsMIPGap, TOLERANCE);
+            WaveModel modelo = WaveModel.build(prob, base).conTelemetria(telemetria);
+            prob.addMaximize(modelo.suma);
+            boolean[][] incumbente = null;
+
+            int k;
+            while ((k = siguiente.getAndIncrement()) < cotas.cantidad()) {
+                if (!presupuesto.hayTiempo()) {
+                    completo.set(false);
+                    break;
+                }
+                int aPrima = cotas.conteo(k);
+                double ratio = mejor.ratio();
+                if (!cotas.puedeMejorar(aPrima, ratio)) {
+                    // Counts are handed out by decreasing bound, so every later one is pruned too
+                    podados.accumulateAndGet(cotas.cantidad() - k, Math::max);
+                    break;
+                }
+                int restantes = (cotas.restantes(k, ratio) + workers - 1) / workers;
+                IloConstraint restriccionA = prob.addEq(modelo.sumaDeA, aPrima);
+                if (ratio > 0) {
+                    prob.setParam(IloCplex.Param.MIP.Tolerances.LowerCutoff, ratio * aPrima - CUTOFF_SLACK);
+                }
+                boolean[][] inicio = incumbente != null ? incumbente : mejor.solucion();
+                modelo.agregarMipStart(modelo.inicios().conPasillos(inicio, aPrima), IloCplex.MIPStartEffort.Auto);
+                solves.incrementAndGet();
+
+                boolean resuelto = modelo.resolver(String.format("worker %d a'=%d", id, aPrima), presupuesto, restantes);
+                // Infeasible also proves the count useless: with the cutoff, it cannot beat the best ratio
+                IloCplex.Status estado = prob.getStatus();
+                if (estado != IloCplex.Status.Optimal && estado != IloCplex.Status.Infeasible) {
+                    completo.set(false);
+                }
+                if (resuelto) {
+                    incumbente = modelo.incumbente();
+                    double valor = prob.getObjValue() / aPrima;
+                    if (mejor.ofrecer(valor, incumbente)) {
+                        telemetria.mensaje("Worker %d: nueva mejor razon %f con a'=%d", id, valor, aPrima);
+                    }
+                } else {
+                    telemetria.mensaje("Sin mejora para a'=%d", aPrima);
+                }
+                prob.remove(restriccionA);
+            }
+        } finally {
+            presupuesto.soltar(prob);
+            prob.end();
+        }
+    }
+}
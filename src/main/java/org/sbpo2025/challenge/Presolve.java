@@ -0,0 +1,230 @@
+package org.sbpo2025.challenge;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Shrinks an instance before any model is built.
+ * <ul>
+ *     <li>Orders with more units than UB, or asking for more of an item than all aisles hold together, can never
+ *     be in a wave and are removed.</li>
+ *     <li>Items no remaining order asks for are removed, together with their stock entries, so they get no stock
+ *     row.</li>
+ *     <li>Aisles left without stock are removed: they only add to the denominator.</li>
+ *     <li>Aisles with identical stock are grouped; {@link WaveModel} gives each group a single integer column
+ *     instead of one binary per aisle.</li>
+ * </ul>
+ * Solutions of the reduced instance are mapped back with {@link #aOriginal}.
+ */
+final class Presolve {
+
+    private final ChallengeInstance original;
+    private final ChallengeInstance reducida;
+    private final int[] ordenOriginal;
+    private final int[] pasilloOriginal;
+    private final int[] grupoPasillo;
+    private final int nGrupos;
+
+    private Presolve(ChallengeInstance original, ChallengeInstance reducida, int[] ordenOriginal,
+                     int[] pasilloOriginal, int[] grupoPasillo, int nGrupos) {
+        this.original = original;
+        this.reducida = reducida;
+        this.ordenOriginal = ordenOriginal;
+        this.pasilloOriginal = pasilloOriginal;
+        this.grupoPasillo = grupoPasillo;
+        this.nGrupos = nGrupos;
+    }
+
+    static Presolve run(ChallengeInstance instance) {
+        int nItems = instance.nItems();
+
+        int[] stockTotal = new int[nItems];
+        for (int k = 0; k < instance.aisleNonZeros(); k++) {
+            stockTotal[instance.aisleItem(k)] += instance.aisleQuantity(k);
+        }
+
+        // Orders that fit in UB and in the total stock
+        int[] ordenOriginal = new int[instance.nOrders()];
+        int nOrdenes = 0;
+        for (int o = 0; o < instance.nOrders(); o++) {
+            boolean posible = instance.orderUnits(o) <= instance.waveSizeUB();
+            for (int k = instance.orderStart(o); k < instance.orderEnd(o) && posible; k++) {
+                posible = instance.orderQuantity(k) <= stockTotal[instance.orderItem(k)];
+            }
+            if (posible) {
+                ordenOriginal[nOrdenes++] = o;
+            }
+        }
+        ordenOriginal = Arrays.copyOf(ordenOriginal, nOrdenes);
+
+        // Items still requested, renumbered
+        int[] itemNuevo = new int[nItems];
+        Arrays.fill(itemNuevo, -1);
+        int nItemsNuevos = 0;
+        for (int o : ordenOriginal) {
+            for (int k = instance.orderStart(o); k < instance.orderEnd(o); k++) {
+                if (itemNuevo[instance.orderItem(k)] < 0) {
+                    itemNuevo[instance.orderItem(k)] = -2;
+                }
+            }
+        }
+        for (int i = 0; i < nItems; i++) {
+            if (itemNuevo[i] == -2) {
+                itemNuevo[i] = nItemsNuevos++;
+            }
+        }
+
+        int[][] ordenes = filas(instance, ordenOriginal, itemNuevo, true);
+
+        // Aisles with stock of some requested item
+        int[] pasilloOriginal = new int[instance.nAisles()];
+        int nPasillos = 0;
+        for (int a = 0; a < instance.nAisles(); a++) {
+            for (int k = instance.aisleStart(a); k < instance.aisleEnd(a); k++) {
+                if (itemNuevo[instance.aisleItem(k)] >= 0) {
+                    pasilloOriginal[nPasillos++] = a;
+                    break;
+                }
+            }
+        }
+        pasilloOriginal = Arrays.copyOf(pasilloOriginal, nPasillos);
+        int[][] pasillos = filas(instance, pasilloOriginal, itemNuevo, false);
+
+        ChallengeInstance reducida = new ChallengeInstance(nItemsNuevos,
+                ordenes[0], ordenes[1], ordenes[2],
+                pasillos[0], pasillos[1], pasillos[2],
+                instance.waveSizeLB(), instance.waveSizeUB());
+
+        // Identical aisles: same (item, quantity) entries once sorted by item
+        int[] grupoPasillo = new int[nPasillos];
+        Map<List<Integer>, Integer> grupos = new HashMap<>();
+        for (int a = 0; a < nPasillos; a++) {
+            Integer[] clave = new Integer[2 * (pasillos[0][a + 1] - pasillos[0][a])];
+            for (int k = pasillos[0][a], j = 0; k < pasillos[0][a + 1]; k++, j += 2) {
+                clave[j] = pasillos[1][k];
+                clave[j + 1] = pasillos[2][k];
+            }
+            grupoPasillo[a] = grupos.computeIfAbsent(List.of(clave), c -> grupos.size());
+        }
+
+        return new Presolve(instance, reducida, ordenOriginal, pasilloOriginal, grupoPasillo, grupos.size());
+    }
+
+    /**
+     * CSR rows of the selected orders or aisles with items renumbered, sorted by item so that identical aisles get
+     * identical rows.
+     */
+    private static int[][] filas(ChallengeInstance instance, int[] seleccion, int[] itemNuevo, boolean ordenes) {
+        int[] inicio = new int[seleccion.length + 1];
+        int nnz = 0;
+        for (int r = 0; r < seleccion.length; r++) {
+            int desde = ordenes ? instance.orderStart(seleccion[r]) : instance.aisleStart(seleccion[r]);
+            int hasta = ordenes ? instance.orderEnd(seleccion[r]) : instance.aisleEnd(seleccion[r]);
+            for (int k = desde; k < hasta; k++) {
+                if (itemNuevo[ordenes ? instance.orderItem(k) : instance.aisleItem(k)] >= 0) {
+                    nnz++;
+                }
+            }
+            inicio[r + 1] = nnz;
+        }
+        int[] item = new int[nnz];
+        int[] cantidad = new int[nnz];
+        long[] fila = new long[0];
+        for (int r = 0; r < seleccion.length; r++) {
+            int desde = ordenes ? instance.orderStart(seleccion[r]) : instance.aisleStart(seleccion[r]);
+            int hasta = ordenes ? instance.orderEnd(seleccion[r]) : instance.aisleEnd(seleccion[r]);
+            if (fila.length < hasta - desde) {
+                fila = new long[hasta - desde];
+            }
+            int n = 0;
+            for (int k = desde; k < hasta; k++) {
+                int i = itemNuevo[ordenes ? instance.orderItem(k) : instance.aisleItem(k)];
+                if (i >= 0) {
+                    fila[n++] = ((long) i << 32) | (ordenes ? instance.orderQuantity(k) : instance.aisleQuantity(k));
+                }
+            }
+            Arrays.sort(fila, 0, n);
+            for (int j = 0; j < n; j++) {
+                item[inicio[r] + j] = (int) (fila[j] >>> 32);
+                cantidad[inicio[r] + j] = (int) fila[j];
+            }
+        }
+        return new int[][]{inicio, item, cantidad};
+    }
+
+    ChallengeInstance reducida() {
+        return reducida;
+    }
+
+    /**
+     * Group of each aisle of the reduced instance; aisles in the same group have identical stock.
+     */
+    int[] gruposPasillos() {
+        return grupoPasillo;
+    }
+
+    /**
+     * {@code solucion} of the original instance on the reduced one. Removed orders cannot be in a feasible wave and
+     * removed aisles hold nothing it needs, so both are dropped.
+     */
+    ChallengeSolution aReducida(ChallengeSolution solucion) {
+        if (solucion == null) {
+            return null;
+        }
+        Set<Integer> ordenes = new HashSet<>();
+        for (int o : solucion.orders()) {
+            int nueva = Arrays.binarySearch(ordenOriginal, o);
+            if (nueva >= 0) {
+                ordenes.add(nueva);
+            }
+        }
+        Set<Integer> pasillos = new HashSet<>();
+        for (int a : solucion.aisles()) {
+            int nuevo = Arrays.binarySearch(pasilloOriginal, a);
+            if (nuevo >= 0) {
+                pasillos.add(nuevo);
+            }
+        }
+        return new ChallengeSolution(ordenes, pasillos);
+    }
+
+    /**
+     * Maps a solution of the reduced instance to the indices of the original one.
+     */
+    ChallengeSolution aOriginal(ChallengeSolution solucion) {
+        if (solucion == null) {
+            return null;
+        }
+        Set<Integer> ordenes = new HashSet<>();
+        for (int o : solucion.orders()) {
+            ordenes.add(ordenOriginal[o]);
+        }
+        Set<Integer> pasillos = new HashSet<>();
+        for (int a : solucion.aisles()) {
+            pasillos.add(pasilloOriginal[a]);
+        }
+        return new ChallengeSolution(ordenes, pasillos);
+    }
+
+    /**
+     * One line with what was removed: orders, items (stock rows), aisles, and binaries saved by merging aisles.
+     */
+    String resumen() {
+        int columnasAntes = original.nOrders() + original.nAisles();
+        int columnasDespues = reducida.nOrders() + nGrupos;
+        return String.format("Presolve: %d ordenes, %d items, %d pasillos eliminados, %d pasillos fusionados en %d grupos; "
+                        + "variables %d -> %d, filas de stock %d -> %d, no ceros %d -> %d",
+                original.nOrders() - reducida.nOrders(),
+                original.nItems() - reducida.nItems(),
+                original.nAisles() - reducida.nAisles(),
+                reducida.nAisles() - nGrupos, nGrupos,
+                columnasAntes, columnasDespues,
+                original.nItems(), reducida.nItems(),
+                original.orderNonZeros() + original.aisleNonZeros(),
+                reducida.orderNonZeros() + reducida.aisleNonZeros());
+    }
+}
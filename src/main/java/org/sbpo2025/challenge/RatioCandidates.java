@@ -0,0 +1,156 @@
+package org.sbpo2025.challenge;
+
+/**
+ * The sorted set of candidate ratios {@code b / a} with {@code b} in [LB, UB] and {@code a} in [1, nAisles], walked
+ * without materializing it.
+ * <p>
+ * The binary search only needs the first candidate and, given a feasible {@code lo} and an infeasible {@code hi},
+ * some candidate strictly between them. {@link #between} picks the one that splits the (b, a) pairs below
+ * {@code hi} in half, which keeps the number of steps at the log of the candidate count. Everything is computed in
+ * O(nAisles) per query with exact integer arithmetic, so memory does not depend on {@code (UB - LB) * nAisles}.
+ */
+final class RatioCandidates {
+
+    private static final int BISECTION_STEPS = 64;
+
+    /** Exact ratio {@code num / den}. */
+    record Fraction(long num, long den) implements Comparable<Fraction> {
+
+        double value() {
+            return (double) num / den;
+        }
+
+        @Override
+        public int compareTo(Fraction other) {
+            return Long.compare(num * other.den, other.num * den);
+        }
+
+        @Override
+        public String toString() {
+            return num + "/" + den;
+        }
+    }
+
+    private final long waveSizeLB;
+    private final long waveSizeUB;
+    private final int nAisles;
+
+    RatioCandidates(int waveSizeLB, int waveSizeUB, int nAisles) {
+        this.waveSizeLB = waveSizeLB;
+        this.waveSizeUB = waveSizeUB;
+        this.nAisles = nAisles;
+    }
+
+    /**
+     * Smallest candidate, LB / nAisles.
+     */
+    Fraction first() {
+        return new Fraction(waveSizeLB, nAisles);
+    }
+
+    /**
+     * A value above every candidate, to be used as the initial exclusive upper end of the search.
+     */
+    Fraction sentinel() {
+        return new Fraction(waveSizeUB + 1, 1);
+    }
+
+    /**
+     * Candidate strictly between {@code lo} and {@code hi} close to the middle of the pairs in that range, or
+     * {@code null} when {@code lo} and {@code hi} are consecutive.
+     */
+    Fraction between(Fraction lo, Fraction hi) {
+        Fraction next = after(lo);
+        if (next == null || next.compareTo(hi) >= 0) {
+            return null;
+        }
+        long target = (pairsUpTo(lo) + pairsUpTo(hi)) / 2;
+        double x = lo.value();
+        double y = hi.value();
+        for (int step = 0; step < BISECTION_STEPS && x < y; step++) {
+            double mid = x + (y - x) / 2;
+            if (mid <= x || mid >= y) {
+                break;
+            }
+            if (pairsUpTo(mid) >= target) {
+                y = mid;
+            } else {
+                x = mid;
+            }
+        }
+        Fraction candidate = atLeast(y);
+        if (candidate == null || candidate.compareTo(lo) <= 0 || candidate.compareTo(hi) >= 0) {
+            return next;
+        }
+        return candidate;
+    }
+
+    /**
+     * About how many more bisection steps are needed between {@code lo} and {@code hi}: the log of the pairs in
+     * between, at least 1.
+     */
+    int stepsLeft(Fraction lo, Fraction hi) {
+        long pairs = pairsUpTo(hi) - pairsUpTo(lo);
+        return Math.max(1, Long.SIZE - Long.numberOfLeadingZeros(pairs));
+    }
+
+    /**
+     * Smallest candidate strictly greater than {@code f}, or {@code null} if there is none.
+     */
+    Fraction after(Fraction f) {
+        Fraction best = null;
+        for (long a = 1; a <= nAisles; a++) {
+            long b = Math.max(waveSizeLB, Math.floorDiv(f.num() * a, f.den()) + 1);
+            if (b <= waveSizeUB) {
+                Fraction c = new Fraction(b, a);
+                if (best == null || c.compareTo(best) < 0) {
+                    best = c;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Smallest candidate greater than or equal to {@code x}, or {@code null} if there is none.
+     */
+    private Fraction atLeast(double x) {
+        Fraction best = null;
+        for (long a = 1; a <= nAisles; a++) {
+            long b = Math.max(waveSizeLB, (long) Math.ceil(x * a));
+            if (b <= waveSizeUB) {
+                Fraction c = new Fraction(b, a);
+                if (best == null || c.compareTo(best) < 0) {
+                    best = c;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Number of pairs (b, a) with b / a <= f.
+     */
+    private long pairsUpTo(Fraction f) {
+        long count = 0;
+        for (long a = 1; a <= nAisles; a++) {
+            count += pairsWithNumeratorUpTo(Math.floorDiv(f.num() * a, f.den()));
+        }
+        return count;
+    }
+
+    /**
+     * Number of pairs (b, a) with b / a <= x.
+     */
+    private long pairsUpTo(double x) {
+        long count = 0;
+        for (long a = 1; a <= nAisles; a++) {
+            count += pairsWithNumeratorUpTo((long) Math.floor(x * a));
+        }
+        return count;
+    }
+
+    private long pairsWithNumeratorUpTo(long maxB) {
+        return Math.max(0, Math.min(maxB, waveSizeUB) - waveSizeLB + 1);
+    }
+}
@@ -0,0 +1,87 @@
+package org.sbpo2025.challenge;
+
+/**
+ * Best wave found so far, shared between threads. Ties on the ratio go to the wave with more aisles, which is
+ * what the sequential sweep keeps ({@code maximo <= valorObjetivoActual}).
+ * <p>
+ * {@link #vista()} gives a strategy of a {@link FormulationPortfolio} its own handle: it reads and offers to the
+ * shared wave, and also remembers the best ratio that strategy found and whether it proved it optimal.
+ */
+final class SharedIncumbent {
+
+    /** The shared incumbent this one is a view of, null if it is the shared one. */
+    private final SharedIncumbent compartida;
+    private volatile double ratio = Double.NEGATIVE_INFINITY;
+    private int pasillos;
+    private boolean[][] solucion;
+    private volatile boolean optima;
+
+    SharedIncumbent() {
+        this(null);
+    }
+
+    private SharedIncumbent(SharedIncumbent compartida) {
+        this.compartida = compartida;
+    }
+
+    /**
+     * A handle on this incumbent that also keeps what is offered through it.
+     */
+    SharedIncumbent vista() {
+        return new SharedIncumbent(this);
+    }
+
+    /**
+     * Records {@code solucion} if it beats the current best. Returns true if it was kept.
+     */
+    boolean ofrecer(double nuevoRatio, boolean[][] nuevaSolucion) {
+        boolean propia = guardar(nuevoRatio, nuevaSolucion);
+        return compartida == null ? propia : compartida.ofrecer(nuevoRatio, nuevaSolucion);
+    }
+
+    private synchronized boolean guardar(double nuevoRatio, boolean[][] nuevaSolucion) {
+        int nuevosPasillos = MipStarts.contar(nuevaSolucion[1]);
+        if (nuevoRatio > ratio || (nuevoRatio == ratio && nuevosPasillos > pasillos)) {
+            ratio = nuevoRatio;
+            pasillos = nuevosPasillos;
+            solucion = nuevaSolucion;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Ratio of the best wave, or negative infinity if there is none yet. Lock-free.
+     */
+    double ratio() {
+        return compartida == null ? ratio : compartida.ratio();
+    }
+
+    synchronized boolean[][] solucion() {
+        return compartida == null ? solucion : compartida.solucion();
+    }
+
+    /**
+     * Best ratio offered through this view, or negative infinity.
+     */
+    double ratioPropio() {
+        return ratio;
+    }
+
+    /**
+     * Records that no wave beats the best ratio. Through a view, also that its strategy proved it.
+     */
+    void marcarOptima() {
+        optima = true;
+        if (compartida != null) {
+            compartida.marcarOptima();
+        }
+    }
+
+    /**
+     * Whether the best ratio is proved optimal; through a view, whether its strategy proved it.
+     */
+    boolean optima() {
+        return optima;
+    }
+}
@@ -0,0 +1,223 @@
+package org.sbpo2025.challenge;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.Stream;
+
+/**
+ * Solutions of past runs on disk ({@code --cache DIR}), one file per instance, keyed by a SHA-256 of its content.
+ * <p>
+ * The key covers the item count, LB, UB and every order and aisle row with its entries sorted by item, so the same
+ * instance written with another entry order or another file name hits the same entry. Each entry records whether its
+ * run finished its search, i.e. proved its answer optimal or every solve it relied on ended Optimal or Infeasible; the
+ * solver returns a finished entry as is and uses an unfinished one as a starting wave. Files are replaced atomically,
+ * so several processes can share a directory. Beyond {@code --cache-size} entries the least recently used ones are
+ * deleted, using the file modification time, which a hit refreshes.
+ * <p>
+ * A cache that cannot be read or written never fails the run: a broken entry is a miss and a failed write is
+ * reported and skipped.
+ */
+final class SolutionCache {
+
+    static final SolutionCache DESACTIVADA = new SolutionCache(null, 0);
+    private static final String EXTENSION = ".sol";
+    private static final String COMPLETA = "completa";
+    private static final String PARCIAL = "parcial";
+
+    private final Path directorio;
+    private final int capacidad;
+
+    private SolutionCache(Path directorio, int capacidad) {
+        this.directorio = directorio;
+        this.capacidad = capacidad;
+    }
+
+    /**
+     * A cached solution and whether its run finished its search.
+     */
+    record Entrada(ChallengeSolution solucion, boolean completa) {
+    }
+
+    /**
+     * Cache asked for by {@code options}, or {@link #DESACTIVADA}.
+     */
+    static SolutionCache abrir(SolverOptions options) {
+        return options.getCacheDir() == null ? DESACTIVADA
+                : new SolutionCache(Path.of(options.getCacheDir()), options.getCacheSize());
+    }
+
+    boolean activa() {
+        return directorio != null;
+    }
+
+    /**
+     * Hex SHA-256 of the canonical form of {@code instance}.
+     */
+    static String clave(ChallengeInstance instance) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+        enteros(digest, buffer, instance.nItems(), instance.waveSizeLB(), instance.waveSizeUB(),
+                instance.nOrders(), instance.nAisles());
+        long[] fila = new long[16];
+        for (int o = 0; o < instance.nOrders(); o++) {
+            fila = filaOrdenada(fila, instance.orderStart(o), instance.orderEnd(o), instance::orderItem, instance::orderQuantity);
+            agregarFila(digest, buffer, fila, instance.orderEnd(o) - instance.orderStart(o));
+        }
+        for (int a = 0; a < instance.nAisles(); a++) {
+            fila = filaOrdenada(fila, instance.aisleStart(a), instance.aisleEnd(a), instance::aisleItem, instance::aisleQuantity);
+            agregarFila(digest, buffer, fila, instance.aisleEnd(a) - instance.aisleStart(a));
+        }
+        buffer.flip();
+        digest.update(buffer);
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Entries {@code [desde, hasta)} packed as {@code item << 32 | quantity} and sorted, i.e. by item.
+     */
+    private static long[] filaOrdenada(long[] fila, int desde, int hasta, IntUnaryOperator item, IntUnaryOperator cantidad) {
+        int n = hasta - desde;
+        if (fila.length < n) {
+            fila = new long[Math.max(n, 2 * fila.length)];
+        }
+        for (int k = 0; k < n; k++) {
+            fila[k] = ((long) item.applyAsInt(desde + k) << 32) | (cantidad.applyAsInt(desde + k) & 0xffffffffL);
+        }
+        Arrays.sort(fila, 0, n);
+        return fila;
+    }
+
+    private static void agregarFila(MessageDigest digest, ByteBuffer buffer, long[] fila, int n) {
+        enteros(digest, buffer, n);
+        for (int k = 0; k < n; k++) {
+            if (buffer.remaining() < Long.BYTES) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+            buffer.putLong(fila[k]);
+        }
+    }
+
+    private static void enteros(MessageDigest digest, ByteBuffer buffer, int... valores) {
+        for (int v : valores) {
+            if (buffer.remaining() < Integer.BYTES) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+            buffer.putInt(v);
+        }
+    }
+
+    /**
+     * The entry for {@code clave}, or null.
+     */
+    Entrada buscar(String clave) {
+        if (!activa()) {
+            return null;
+        }
+        Path archivo = directorio.resolve(clave + EXTENSION);
+        try {
+            List<String> lineas = Files.readAllLines(archivo);
+            if (lineas.size() < 3 || !(lineas.get(0).equals(COMPLETA) || lineas.get(0).equals(PARCIAL))) {
+                return null;
+            }
+            Entrada entrada = new Entrada(new ChallengeSolution(indices(lineas.get(1)), indices(lineas.get(2))),
+                    lineas.get(0).equals(COMPLETA));
+            Files.setLastModifiedTime(archivo, FileTime.fromMillis(System.currentTimeMillis()));
+            return entrada;
+        } catch (IOException | NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Set<Integer> indices(String linea) {
+        Set<Integer> res = new HashSet<>();
+        for (String token : linea.trim().split("\\s+")) {
+            if (!token.isEmpty()) {
+                res.add(Integer.parseInt(token));
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Stores {@code solucion} under {@code clave} and evicts the least recently used entries beyond the capacity.
+     */
+    void guardar(String clave, ChallengeSolution solucion, boolean completa) throws IOException {
+        if (!activa()) {
+            return;
+        }
+        Files.createDirectories(directorio);
+        Path temporal = Files.createTempFile(directorio, clave, ".tmp");
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(temporal)) {
+                writer.write(completa ? COMPLETA : PARCIAL);
+                writer.newLine();
+                writer.write(unir(solucion.orders()));
+                writer.newLine();
+                writer.write(unir(solucion.aisles()));
+                writer.newLine();
+            }
+            Path archivo = directorio.resolve(clave + EXTENSION);
+            try {
+                Files.move(temporal, archivo, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporal);
+        }
+        desalojar();
+    }
+
+    private static String unir(Set<Integer> indices) {
+        StringBuilder linea = new StringBuilder();
+        indices.stream().sorted().forEach(i -> linea.append(linea.length() == 0 ? "" : " ").append(i));
+        return linea.toString();
+    }
+
+    private void desalojar() throws IOException {
+        List<Path> entradas;
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            entradas = archivos.filter(p -> p.getFileName().toString().endsWith(EXTENSION)).toList();
+        }
+        if (entradas.size() <= capacidad) {
+            return;
+        }
+        record ConFecha(Path archivo, long ms) {
+        }
+        List<ConFecha> porUso = entradas.stream().map(p -> {
+            try {
+                return new ConFecha(p, Files.getLastModifiedTime(p).toMillis());
+            } catch (IOException e) {
+                return new ConFecha(p, Long.MIN_VALUE);
+            }
+        }).sorted(Comparator.comparingLong(ConFecha::ms)).toList();
+        for (int k = 0; k < porUso.size() - capacidad; k++) {
+            // Another process may have evicted it already
+            Files.deleteIfExists(porUso.get(k).archivo());
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package org.sbpo2025.challenge;
+
+/**
+ * Formulation used by {@link ChallengeSolver#solve}.
+ */
+public enum SolverMode {
+    /** Pick between the fixed-aisle sweep and the binary search with the {@code rango_k} rule. */
+    AUTO,
+    /** One MIP per number of visited aisles ({@code planteoPasillosFijos}). */
+    PASILLOS_FIJOS,
+    /** The same sweep split over several models solved in parallel ({@link ParallelAisleSweep}). */
+    PASILLOS_PARALELO,
+    /** Binary search over the candidate ratios ({@code planteo_busqueda_binaria}). */
+    BUSQUEDA_BINARIA,
+    /** Dinkelbach iterations on max(units - lambda * aisles). */
+    DINKELBACH,
+    /** Sub-MIPs around the heuristic wave, in parallel ({@link LargeNeighborhoodSearch}). */
+    LNS,
+    /** The sweep, Dinkelbach, the binary search and the heuristic at the same time, sharing their best wave ({@link FormulationPortfolio}). */
+    PORTAFOLIO,
+    /** Only the greedy + local search heuristic, no CPLEX. */
+    HEURISTICA;
+
+    public static SolverMode parse(String name) {
+        return valueOf(name.trim().toUpperCase().replace('-', '_'));
+    }
+}
@@ -0,0 +1,232 @@
+package org.sbpo2025.challenge;
+
+/**
+ * Command line options that follow the input and output paths.
+ */
+public class SolverOptions {
+
+    private SolverMode mode = SolverMode.PORTAFOLIO;
+    private int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    private int workers = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    private long heuristicMillis = 1000;
+    private boolean presolve = true;
+    private Integer jobs;
+    private long timeLimitMillis = 10 * 60 * 1000;
+    private String telemetryFile;
+    private boolean trace;
+    private boolean cplexLog;
+    private boolean modelNames;
+    private boolean lazyStock;
+    private String cacheDir;
+    private int cacheSize = 1000;
+
+    public SolverMode getMode() {
+        return mode;
+    }
+
+    public SolverOptions setMode(SolverMode mode) {
+        this.mode = mode;
+        return this;
+    }
+
+    /**
+     * Total number of solver threads one instance may use. Defaults to half the cores, so that a directory is solved
+     * two instances at a time.
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    public SolverOptions setThreads(int threads) {
+        this.threads = Math.max(1, threads);
+        return this;
+    }
+
+    /**
+     * Number of models solved at the same time by the parallel modes; they share {@link #getThreads()}.
+     */
+    public int getWorkers() {
+        return workers;
+    }
+
+    public SolverOptions setWorkers(int workers) {
+        this.workers = Math.max(1, workers);
+        return this;
+    }
+
+    /**
+     * Time budget of the heuristic that runs before the MIP, in milliseconds.
+     */
+    public long getHeuristicMillis() {
+        return heuristicMillis;
+    }
+
+    public SolverOptions setHeuristicMillis(long heuristicMillis) {
+        this.heuristicMillis = Math.max(0, heuristicMillis);
+        return this;
+    }
+
+    /**
+     * Whether {@link Presolve} shrinks the instance before the models are built.
+     */
+    public boolean isPresolve() {
+        return presolve;
+    }
+
+    public SolverOptions setPresolve(boolean presolve) {
+        this.presolve = presolve;
+        return this;
+    }
+
+    /**
+     * Deadline of the run, counted from its start, in milliseconds. The output is written before it.
+     */
+    public long getTimeLimitMillis() {
+        return timeLimitMillis;
+    }
+
+    public SolverOptions setTimeLimitMillis(long timeLimitMillis) {
+        this.timeLimitMillis = Math.max(0, timeLimitMillis);
+        return this;
+    }
+
+    /**
+     * JSON lines file for {@link SolverTelemetry}, or null for none.
+     */
+    public String getTelemetryFile() {
+        return telemetryFile;
+    }
+
+    public SolverOptions setTelemetryFile(String telemetryFile) {
+        this.telemetryFile = telemetryFile;
+        return this;
+    }
+
+    /**
+     * Whether solver events are also printed on the console.
+     */
+    public boolean isTrace() {
+        return trace;
+    }
+
+    public SolverOptions setTrace(boolean trace) {
+        this.trace = trace;
+        return this;
+    }
+
+    /**
+     * Whether CPLEX prints its own log.
+     */
+    public boolean isCplexLog() {
+        return cplexLog;
+    }
+
+    public SolverOptions setCplexLog(boolean cplexLog) {
+        this.cplexLog = cplexLog;
+        return this;
+    }
+
+    /**
+     * Whether model columns get names (W_o, A_a), for debugging exported models. Off by default: names cost time and
+     * memory on large instances.
+     */
+    public boolean isModelNames() {
+        return modelNames;
+    }
+
+    public SolverOptions setModelNames(boolean modelNames) {
+        this.modelNames = modelNames;
+        return this;
+    }
+
+    public boolean isLazyStock() {
+        return lazyStock;
+    }
+
+    public SolverOptions setLazyStock(boolean lazyStock) {
+        this.lazyStock = lazyStock;
+        return this;
+    }
+
+    /**
+     * Directory of the {@link SolutionCache}, or null for none.
+     */
+    public String getCacheDir() {
+        return cacheDir;
+    }
+
+    public SolverOptions setCacheDir(String cacheDir) {
+        this.cacheDir = cacheDir;
+        return this;
+    }
+
+    /**
+     * Entries kept in the cache; the least recently used ones go first.
+     */
+    public int getCacheSize() {
+        return cacheSize;
+    }
+
+    public SolverOptions setCacheSize(int cacheSize) {
+        this.cacheSize = Math.max(1, cacheSize);
+        return this;
+    }
+
+    /**
+     * Instances solved at the same time when the input is a directory. Defaults to as many as fit in the cores
+     * with {@link #getThreads()} threads each.
+     */
+    public int getJobs() {
+        return jobs != null ? jobs : Math.max(1, Runtime.getRuntime().availableProcessors() / threads);
+    }
+
+    public SolverOptions setJobs(int jobs) {
+        this.jobs = Math.max(1, jobs);
+        return this;
+    }
+
+    /**
+     * Parses {@code args[from..]}, e.g. {@code --mode dinkelbach}.
+     */
+    public static SolverOptions parse(String[] args, int from) {
+        SolverOptions options = new SolverOptions();
+        for (int k = from; k < args.length; k++) {
+            String flag = args[k];
+            if (k + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value for " + flag);
+            }
+            String value = args[++k];
+            switch (flag) {
+                case "--mode" -> options.setMode(SolverMode.parse(value));
+                case "--threads" -> options.setThreads(Integer.parseInt(value));
+                case "--workers" -> options.setWorkers(Integer.parseInt(value));
+                case "--heuristic-ms" -> options.setHeuristicMillis(Long.parseLong(value));
+                case "--time-limit" -> options.setTimeLimitMillis(Math.round(Double.parseDouble(value) * 1000));
+                case "--jobs" -> options.setJobs(Integer.parseInt(value));
+                case "--presolve" -> options.setPresolve(onOff(flag, value));
+                case "--telemetry" -> options.setTelemetryFile(value);
+                case "--trace" -> options.setTrace(onOff(flag, value));
+                case "--cplex-log" -> options.setCplexLog(onOff(flag, value));
+                case "--model-names" -> options.setModelNames(onOff(flag, value));
+                case "--lazy-stock" -> options.setLazyStock(onOff(flag, value));
+                case "--cache" -> options.setCacheDir(value);
+                case "--cache-size" -> options.setCacheSize(Integer.parseInt(value));
+                default -> throw new IllegalArgumentException("Unknown option " + flag);
+            }
+        }
+        return options;
+    }
+
+    private static boolean onOff(String flag, String value) {
+        return switch (value) {
+            case "on" -> true;
+            case "off" -> false;
+            default -> throw new IllegalArgumentException(flag + " takes on or off, got " + value);
+        };
+    }
+
+    public static String usage() {
+        return "[--mode portafolio|auto|pasillos_fijos|pasillos_paralelo|busqueda_binaria|dinkelbach|lns|heuristica] [--threads N] [--workers N] [--heuristic-ms N] [--presolve on|off] [--jobs N] [--time-limit SECONDS]"
+                + " [--telemetry FILE] [--trace on|off] [--cplex-log on|off] [--model-names on|off] [--lazy-stock on|off] [--cache DIR] [--cache-size N]";
+    }
+}
@@ -0,0 +1,244 @@
+package org.sbpo2025.challenge;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Events of a run: one JSON object per line in the {@code --telemetry} file, and trace lines on the console with
+ * {@code --trace on}.
+ * <p>
+ * Records the duration of each phase (parse, presolve, heuristica, matriz, build, search, write), the size and build
+ * time of every model, for every solve its size, time, status, MIP gap, nodes and incumbent ratio, and the outcome
+ * of each strategy of a {@link FormulationPortfolio}. {@link #resumen()} condenses one instance in a line.
+ * <p>
+ * {@link #DESACTIVADA} drops everything and is the default: each call returns after one field read. Events are
+ * meant for per-solve granularity, not for inner loops.
+ */
+final class SolverTelemetry implements Closeable {
+
+    static final SolverTelemetry DESACTIVADA = new SolverTelemetry(null, null, false, null);
+
+    private final BufferedWriter json;
+    private final PrintStream traza;
+    private final boolean logCplex;
+    private final String instancia;
+    private final long inicio = System.nanoTime();
+    // Per instance
+    private final Map<String, Long> fases = new LinkedHashMap<>();
+    private int solves;
+    private long solveMs;
+    private long peorSolveMs = -1;
+    private String peorSolve;
+    private final List<String> ganadoras = new ArrayList<>();
+
+    private SolverTelemetry(BufferedWriter json, PrintStream traza, boolean logCplex, String instancia) {
+        this.json = json;
+        this.traza = traza;
+        this.logCplex = logCplex;
+        this.instancia = instancia;
+    }
+
+    /**
+     * Telemetry asked for by {@code options}, or {@link #DESACTIVADA}.
+     */
+    static SolverTelemetry abrir(SolverOptions options) throws IOException {
+        if (options.getTelemetryFile() == null && !options.isTrace() && !options.isCplexLog()) {
+            return DESACTIVADA;
+        }
+        BufferedWriter json = options.getTelemetryFile() == null ? null : Files.newBufferedWriter(Path.of(options.getTelemetryFile()));
+        return new SolverTelemetry(json, options.isTrace() ? System.out : null, options.isCplexLog(), null);
+    }
+
+    /**
+     * View for one instance: same outputs, events tagged with {@code nombre}, its own phase totals.
+     */
+    SolverTelemetry paraInstancia(String nombre) {
+        return this == DESACTIVADA ? this : new SolverTelemetry(json, traza, logCplex, nombre);
+    }
+
+    boolean activa() {
+        return json != null || traza != null;
+    }
+
+    /**
+     * Where CPLEX writes its log, or null to silence it.
+     */
+    OutputStream salidaCplex() {
+        return logCplex ? System.out : null;
+    }
+
+    /**
+     * A trace line, e.g. the chosen formulation or a new best ratio.
+     */
+    void mensaje(String formato, Object... args) {
+        if (!activa()) {
+            return;
+        }
+        String texto = String.format(formato, args);
+        if (traza != null) {
+            traza.println(instancia == null ? texto : instancia + ": " + texto);
+        }
+        escribir("mensaje", "texto", texto);
+    }
+
+    /**
+     * Adds {@code ms} to phase {@code fase}.
+     */
+    void fase(String fase, long ms) {
+        if (!activa()) {
+            return;
+        }
+        synchronized (this) {
+            fases.merge(fase, ms, Long::sum);
+        }
+        escribir("fase", "fase", fase, "ms", ms);
+    }
+
+    void modelo(int filas, int columnas, long noCeros, long buildMs) {
+        if (!activa()) {
+            return;
+        }
+        fase("build", buildMs);
+        escribir("modelo", "filas", filas, "columnas", columnas, "no_ceros", noCeros, "build_ms", buildMs);
+    }
+
+    /**
+     * One solve. {@code gap} and {@code ratio} are NaN when there is no incumbent.
+     */
+    void solve(String etiqueta, int filas, int columnas, long noCeros, long solveMs, long primeraIncumbenteMs,
+               String estado, double gap, long nodos, double ratio) {
+        if (!activa()) {
+            return;
+        }
+        synchronized (this) {
+            solves++;
+            this.solveMs += solveMs;
+            if (solveMs > peorSolveMs) {
+                peorSolveMs = solveMs;
+                peorSolve = etiqueta;
+            }
+        }
+        if (traza != null) {
+            traza.println(String.format("%s%s: %s, primera incumbente %s, solve %d ms, gap %.4f, %d nodos, ratio %f",
+                    instancia == null ? "" : instancia + ": ", etiqueta, estado,
+                    primeraIncumbenteMs < 0 ? "-" : primeraIncumbenteMs + " ms", solveMs, gap, nodos, ratio));
+        }
+        escribir("solve", "etiqueta", etiqueta, "filas", filas, "columnas", columnas, "no_ceros", noCeros,
+                "solve_ms", solveMs, "primera_incumbente_ms", primeraIncumbenteMs, "estado", estado, "gap", gap,
+                "nodos", nodos, "ratio", ratio);
+    }
+
+    /**
+     * How one strategy of a portfolio ended, with the shape of the instance it ran on. {@code ratio} is the best it
+     * found itself, negative infinity if none.
+     */
+    void estrategia(String nombre, long ms, double ratio, String fin, boolean ganadora, int ordenes, int pasillos, int items) {
+        if (!activa()) {
+            return;
+        }
+        if (ganadora) {
+            synchronized (this) {
+                ganadoras.add(nombre);
+            }
+        }
+        escribir("estrategia", "estrategia", nombre, "ms", ms, "ratio", ratio, "fin", fin, "ganadora", ganadora,
+                "ordenes", ordenes, "pasillos", pasillos, "items", items);
+    }
+
+    /**
+     * Phases and solves of this instance in one line; also written as a {@code resumen} event.
+     */
+    synchronized String resumen() {
+        StringBuilder texto = new StringBuilder("Telemetria");
+        if (instancia != null) {
+            texto.append(' ').append(instancia);
+        }
+        texto.append(':');
+        fases.forEach((fase, ms) -> texto.append(' ').append(fase).append(' ').append(ms).append(" ms,"));
+        texto.append(String.format(" %d solves en %d ms", solves, solveMs));
+        if (peorSolve != null) {
+            texto.append(String.format(", el mas lento %s (%d ms)", peorSolve, peorSolveMs));
+        }
+        if (!ganadoras.isEmpty()) {
+            texto.append(", ganadora ").append(String.join("/", ganadoras));
+        }
+        if (activa()) {
+            escribir("resumen", "texto", texto.toString());
+        }
+        return texto.toString();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (json != null && instancia == null) {
+            synchronized (json) {
+                json.close();
+            }
+        }
+    }
+
+    private void escribir(String tipo, Object... claveValor) {
+        if (json == null) {
+            return;
+        }
+        StringBuilder linea = new StringBuilder(128)
+                .append("{\"t_ms\":").append((System.nanoTime() - inicio) / 1_000_000)
+                .append(",\"tipo\":\"").append(tipo).append('"');
+        if (instancia != null) {
+            linea.append(",\"instancia\":");
+            texto(linea, instancia);
+        }
+        for (int k = 0; k < claveValor.length; k += 2) {
+            linea.append(",\"").append(claveValor[k]).append("\":");
+            Object valor = claveValor[k + 1];
+            if (valor instanceof String s) {
+                texto(linea, s);
+            } else if (valor instanceof Double d && (d.isNaN() || d.isInfinite())) {
+                linea.append("null");
+            } else {
+                linea.append(valor);
+            }
+        }
+        linea.append('}');
+        synchronized (json) {
+            try {
+                json.write(linea.toString());
+                json.newLine();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private static void texto(StringBuilder linea, String s) {
+        linea.append('"');
+        for (int k = 0; k < s.length(); k++) {
+            char c = s.charAt(k);
+            switch (c) {
+                case '"' -> linea.append("\\\"");
+                case '\\' -> linea.append("\\\\");
+                case '\n' -> linea.append("\\n");
+                case '\r' -> linea.append("\\r");
+                case '\t' -> linea.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        linea.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        linea.append(c);
+                    }
+                }
+            }
+        }
+        linea.append('"');
+    }
+}
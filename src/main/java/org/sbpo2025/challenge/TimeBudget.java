@@ -0,0 +1,152 @@
+package org.sbpo2025.challenge;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.time.StopWatch;
+
+import ilog.concert.IloException;
+import ilog.cplex.IloCplex;
+
+/**
+ * Time left until the deadline of the run, handed out to the solves one slice at a time.
+ * <p>
+ * A slice is the time left divided by the solves still expected, so an early hard solve cannot take the time of
+ * the later ones. When past solves needed more than that even share, the next one gets up to twice their average,
+ * but never more than half of what is left. The last part of the deadline is always kept for writing the output.
+ * <p>
+ * A {@linkplain #paraReoptimizar re-optimization budget} has no output to write and no floor on a slice: its
+ * limits are usually short, and the whole of them goes to the solves.
+ * <p>
+ * A budget can be cancelled: from then on there is no time left and the models it {@linkplain #vigilar watches}
+ * stop their current solve. A model is watched until it is {@linkplain #soltar let go}, which must happen before
+ * it is ended.
+ */
+final class TimeBudget {
+
+    /** Kept for writing the output and shutting down: 5 s, or a tenth of very short limits. */
+    private static final long RESERVA_SALIDA_MS = 5000;
+    /** Slices shorter than this are not worth starting a solve. */
+    private static final long MINIMO_SOLVE_MS = 1000;
+
+    private final StopWatch stopWatch;
+    private final long limiteMs;
+    private final long reservaMs;
+    private final long minimoSolveMs;
+    private int solves;
+    private long totalSolveMs;
+    private volatile boolean cancelado;
+    private final Map<IloCplex, IloCplex.Aborter> aborters = new IdentityHashMap<>();
+
+    /**
+     * @param stopWatch started when the run started
+     * @param limiteMs  deadline of the run, measured on {@code stopWatch}
+     */
+    TimeBudget(StopWatch stopWatch, long limiteMs) {
+        this(stopWatch, limiteMs, Math.min(RESERVA_SALIDA_MS, limiteMs / 10), MINIMO_SOLVE_MS);
+    }
+
+    private TimeBudget(StopWatch stopWatch, long limiteMs, long reservaMs, long minimoSolveMs) {
+        this.stopWatch = stopWatch;
+        this.limiteMs = limiteMs;
+        this.reservaMs = reservaMs;
+        this.minimoSolveMs = minimoSolveMs;
+    }
+
+    /**
+     * A budget of {@code limiteMs} starting now, with no output reserve and slices of at least 1 ms, for the
+     * re-solves of {@link IncrementalSolver}.
+     */
+    static TimeBudget paraReoptimizar(long limiteMs) {
+        return new TimeBudget(StopWatch.createStarted(), limiteMs, 0, 1);
+    }
+
+    /**
+     * Milliseconds left for solving, the output reserve already taken out.
+     */
+    long restanteMs() {
+        if (cancelado) {
+            return 0;
+        }
+        return Math.max(0, limiteMs - reservaMs - stopWatch.getTime(TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Whether there is time for one more solve.
+     */
+    boolean hayTiempo() {
+        return restanteMs() >= minimoSolveMs;
+    }
+
+    /**
+     * Time for the next solve when about {@code solvesRestantes} solves, this one included, are still to come.
+     */
+    synchronized long porcionMs(int solvesRestantes) {
+        long restante = restanteMs();
+        long porcion = restante / Math.max(1, solvesRestantes);
+        if (solves > 0) {
+            long promedio = totalSolveMs / solves;
+            if (promedio > porcion) {
+                porcion = Math.max(porcion, Math.min(2 * promedio, restante / 2));
+            }
+        }
+        return Math.min(restante, Math.max(porcion, minimoSolveMs));
+    }
+
+    /**
+     * Sets the time limit of {@code prob} to the next slice.
+     */
+    void limitar(IloCplex prob, int solvesRestantes) throws IloException {
+        prob.setParam(IloCplex.Param.TimeLimit, porcionMs(solvesRestantes) / 1000.0);
+    }
+
+    /**
+     * Records how long a solve took, for the next slices.
+     */
+    synchronized void registrar(long solveMs) {
+        solves++;
+        totalSolveMs += solveMs;
+    }
+
+    /**
+     * A budget with the same deadline and its own slices, so that concurrent searches do not share solve averages.
+     */
+    TimeBudget derivado() {
+        return new TimeBudget(stopWatch, limiteMs, reservaMs, minimoSolveMs);
+    }
+
+    /**
+     * Lets {@link #cancelar()} stop the solves of {@code prob}.
+     */
+    synchronized void vigilar(IloCplex prob) throws IloException {
+        IloCplex.Aborter aborter = new IloCplex.Aborter();
+        prob.use(aborter);
+        aborters.put(prob, aborter);
+        if (cancelado) {
+            aborter.abort();
+        }
+    }
+
+    /**
+     * Stops watching {@code prob} and frees its aborter. Call it before {@code prob.end()}.
+     */
+    synchronized void soltar(IloCplex prob) {
+        IloCplex.Aborter aborter = aborters.remove(prob);
+        if (aborter != null) {
+            aborter.end();
+        }
+    }
+
+    /**
+     * Leaves no time for further solves and aborts the running ones.
+     */
+    synchronized void cancelar() {
+        cancelado = true;
+        aborters.values().forEach(IloCplex.Aborter::abort);
+    }
+
+    boolean cancelado() {
+        return cancelado;
+    }
+}
@@ -0,0 +1,206 @@
+package org.sbpo2025.challenge;
+
+/**
+ * A wave that is changed one order or aisle at a time, with what {@code isSolutionFeasible} and
+ * {@code computeObjectiveFunction} need kept up to date: units picked and available per item, total units, number of
+ * items with a deficit and number of aisles.
+ * <p>
+ * Adding or removing an order or an aisle costs the length of its row; {@link #factible()} and {@link #ratio()} are
+ * O(1). Nothing is allocated after construction. Adding an order or aisle that is already in the wave, or removing
+ * one that is not, is a caller error and is not checked.
+ */
+final class WaveEvaluator {
+
+    private final ChallengeInstance instance;
+    private final boolean[] w;
+    private final boolean[] a;
+    private final int[] tomado;
+    private final int[] disponible;
+    private int unidades;
+    private int itemsConDeficit;
+    // Orders and aisles of the wave, in no particular order, for O(1) removal and random picks
+    private final int[] elegidas;
+    private final int[] posElegida;
+    private int nElegidas;
+    private final int[] abiertos;
+    private final int[] posAbierto;
+    private int nAbiertos;
+
+    WaveEvaluator(ChallengeInstance instance) {
+        this.instance = instance;
+        this.w = new boolean[instance.nOrders()];
+        this.a = new boolean[instance.nAisles()];
+        this.tomado = new int[instance.nItems()];
+        this.disponible = new int[instance.nItems()];
+        this.elegidas = new int[instance.nOrders()];
+        this.posElegida = new int[instance.nOrders()];
+        this.abiertos = new int[instance.nAisles()];
+        this.posAbierto = new int[instance.nAisles()];
+    }
+
+    void agregarOrden(int o) {
+        w[o] = true;
+        unidades += instance.orderUnits(o);
+        for (int k = instance.orderStart(o); k < instance.orderEnd(o); k++) {
+            int i = instance.orderItem(k);
+            boolean antes = tomado[i] > disponible[i];
+            tomado[i] += instance.orderQuantity(k);
+            itemsConDeficit += (tomado[i] > disponible[i] ? 1 : 0) - (antes ? 1 : 0);
+        }
+        posElegida[o] = nElegidas;
+        elegidas[nElegidas++] = o;
+    }
+
+    void quitarOrden(int o) {
+        w[o] = false;
+        unidades -= instance.orderUnits(o);
+        for (int k = instance.orderStart(o); k < instance.orderEnd(o); k++) {
+            int i = instance.orderItem(k);
+            boolean antes = tomado[i] > disponible[i];
+            tomado[i] -= instance.orderQuantity(k);
+            itemsConDeficit += (tomado[i] > disponible[i] ? 1 : 0) - (antes ? 1 : 0);
+        }
+        int ultima = elegidas[--nElegidas];
+        elegidas[posElegida[o]] = ultima;
+        posElegida[ultima] = posElegida[o];
+    }
+
+    void agregarPasillo(int p) {
+        a[p] = true;
+        for (int k = instance.aisleStart(p); k < instance.aisleEnd(p); k++) {
+            int i = instance.aisleItem(k);
+            boolean antes = tomado[i] > disponible[i];
+            disponible[i] += instance.aisleQuantity(k);
+            itemsConDeficit += (tomado[i] > disponible[i] ? 1 : 0) - (antes ? 1 : 0);
+        }
+        posAbierto[p] = nAbiertos;
+        abiertos[nAbiertos++] = p;
+    }
+
+    void quitarPasillo(int p) {
+        a[p] = false;
+        for (int k = instance.aisleStart(p); k < instance.aisleEnd(p); k++) {
+            int i = instance.aisleItem(k);
+            boolean antes = tomado[i] > disponible[i];
+            disponible[i] -= instance.aisleQuantity(k);
+            itemsConDeficit += (tomado[i] > disponible[i] ? 1 : 0) - (antes ? 1 : 0);
+        }
+        int ultimo = abiertos[--nAbiertos];
+        abiertos[posAbierto[p]] = ultimo;
+        posAbierto[ultimo] = posAbierto[p];
+    }
+
+    /**
+     * Whether order {@code o} can be added without a deficit or going over UB.
+     */
+    boolean entra(int o) {
+        if (unidades + instance.orderUnits(o) > instance.waveSizeUB()) {
+            return false;
+        }
+        for (int k = instance.orderStart(o); k < instance.orderEnd(o); k++) {
+            int i = instance.orderItem(k);
+            if (tomado[i] + instance.orderQuantity(k) > disponible[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Same answer as {@code isSolutionFeasible} on the current wave.
+     */
+    boolean factible() {
+        return itemsConDeficit == 0 && nElegidas > 0 && nAbiertos > 0
+                && unidades >= instance.waveSizeLB() && unidades <= instance.waveSizeUB();
+    }
+
+    /**
+     * Same answer as {@code computeObjectiveFunction} on the current wave.
+     */
+    double ratio() {
+        return nElegidas == 0 || nAbiertos == 0 ? 0 : (double) unidades / nAbiertos;
+    }
+
+    int unidades() {
+        return unidades;
+    }
+
+    int itemsConDeficit() {
+        return itemsConDeficit;
+    }
+
+    int tomado(int i) {
+        return tomado[i];
+    }
+
+    int disponible(int i) {
+        return disponible[i];
+    }
+
+    boolean tieneOrden(int o) {
+        return w[o];
+    }
+
+    boolean tienePasillo(int p) {
+        return a[p];
+    }
+
+    int nOrdenes() {
+        return nElegidas;
+    }
+
+    int nPasillos() {
+        return nAbiertos;
+    }
+
+    /**
+     * The {@code k}-th order of the wave, for {@code k < nOrdenes()}; the order changes as the wave does.
+     */
+    int orden(int k) {
+        return elegidas[k];
+    }
+
+    /**
+     * The {@code k}-th aisle of the wave, for {@code k < nPasillos()}; the order changes as the wave does.
+     */
+    int pasillo(int k) {
+        return abiertos[k];
+    }
+
+    /**
+     * Empties the wave in the time it takes to remove its orders and aisles.
+     */
+    void limpiar() {
+        while (nElegidas > 0) {
+            quitarOrden(elegidas[nElegidas - 1]);
+        }
+        while (nAbiertos > 0) {
+            quitarPasillo(abiertos[nAbiertos - 1]);
+        }
+    }
+
+    /**
+     * Replaces the wave with {@code ordenes} and {@code pasillos}.
+     */
+    void cargar(boolean[] ordenes, boolean[] pasillos) {
+        limpiar();
+        for (int p = 0; p < pasillos.length; p++) {
+            if (pasillos[p]) {
+                agregarPasillo(p);
+            }
+        }
+        for (int o = 0; o < ordenes.length; o++) {
+            if (ordenes[o]) {
+                agregarOrden(o);
+            }
+        }
+    }
+
+    /**
+     * Copies the wave into {@code ordenes} and {@code pasillos}.
+     */
+    void copiarEn(boolean[] ordenes, boolean[] pasillos) {
+        System.arraycopy(w, 0, ordenes, 0, w.length);
+        System.arraycopy(a, 0, pasillos, 0, a.length);
+    }
+}
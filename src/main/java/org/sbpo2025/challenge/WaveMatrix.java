@@ -0,0 +1,145 @@
+package org.sbpo2025.challenge;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * The part of {@link WaveModel} that depends only on the instance: its columns and its stock rows as arrays of
+ * their nonzeros, ready for {@code IloLPMatrix.addRows}.
+ * <p>
+ * Columns are W_o for every order, then one A column per group of identical aisles. Row {@code i} holds
+ * {@code u_oi} for the orders and {@code -u_ai} for the aisle groups that have item {@code i}, once per group.
+ * Built once per instance and shared, read-only, by every model of the run: each formulation and each worker of the
+ * parallel modes loads it into its own {@code IloCplex} in a few bulk calls.
+ * <p>
+ * With {@code --lazy-stock on} only the rows in {@link #filasIniciales} are loaded up front; the models separate the
+ * others from their candidate incumbents, see {@link WaveModel}.
+ */
+final class WaveMatrix {
+
+    final ChallengeInstance instance;
+    /** Group of each aisle. */
+    final int[] grupoPasillo;
+    /** Number of aisles of each group. */
+    final int[] copias;
+    /** First aisle of each group, which names its column. */
+    final int[] primerPasillo;
+    final int[][] indices;
+    final double[][] valores;
+    final double[] cotaInferior;
+    final double[] cotaSuperior;
+    /** Whether columns get names, for exported models; off, the names are not even built. */
+    final boolean nombres;
+    final MipStarts inicios;
+    /** Items whose stock row every model loads up front, or null for all of them. */
+    final boolean[] filasIniciales;
+    final long noCeros;
+    final long buildMs;
+
+    /**
+     * @param grupos  group of each aisle as given by {@link Presolve#gruposPasillos()}, or null for one column per
+     *                aisle
+     * @param nombres whether the models name their columns
+     */
+    WaveMatrix(ChallengeInstance instance, int[] grupos, boolean nombres) {
+        this(instance, grupos, nombres, null);
+    }
+
+    /**
+     * @param filasIniciales items whose stock row is loaded up front, or null for all of them
+     */
+    WaveMatrix(ChallengeInstance instance, int[] grupos, boolean nombres, boolean[] filasIniciales) {
+        long inicio = System.nanoTime();
+        this.instance = instance;
+        this.nombres = nombres;
+        this.filasIniciales = filasIniciales;
+        this.grupoPasillo = grupos != null ? grupos : IntStream.range(0, instance.nAisles()).toArray();
+        int nGrupos = Arrays.stream(grupoPasillo).max().orElse(-1) + 1;
+        this.copias = new int[nGrupos];
+        this.primerPasillo = new int[nGrupos];
+        Arrays.fill(primerPasillo, -1);
+        for (int a = 0; a < grupoPasillo.length; a++) {
+            int g = grupoPasillo[a];
+            copias[g]++;
+            if (primerPasillo[g] < 0) {
+                primerPasillo[g] = a;
+            }
+        }
+
+        int nOrdenes = instance.nOrders();
+        int nItems = instance.nItems();
+        this.indices = new int[nItems][];
+        this.valores = new double[nItems][];
+        int[] vistoEnFila = new int[nGrupos];
+        Arrays.fill(vistoEnFila, -1);
+        long total = 0;
+        for (int i = 0; i < nItems; i++) {
+            int ordenes = instance.itemOrdersEnd(i) - instance.itemOrdersStart(i);
+            int[] ind = new int[ordenes + instance.itemAislesEnd(i) - instance.itemAislesStart(i)];
+            double[] val = new double[ind.length];
+            int n = 0;
+            for (int k = instance.itemOrdersStart(i); k < instance.itemOrdersEnd(i); k++) {
+                ind[n] = instance.itemOrder(k);
+                val[n++] = instance.itemOrderQuantity(k);
+            }
+            //Aisles of a group share the column, so only one entry per group goes in the row
+            for (int k = instance.itemAislesStart(i); k < instance.itemAislesEnd(i); k++) {
+                int g = grupoPasillo[instance.itemAisle(k)];
+                if (vistoEnFila[g] != i) {
+                    vistoEnFila[g] = i;
+                    ind[n] = nOrdenes + g;
+                    val[n++] = -instance.itemAisleQuantity(k);
+                }
+            }
+            indices[i] = n == ind.length ? ind : Arrays.copyOf(ind, n);
+            valores[i] = n == val.length ? val : Arrays.copyOf(val, n);
+            total += n;
+        }
+        this.noCeros = total;
+        this.cotaInferior = new double[nItems];
+        Arrays.fill(cotaInferior, -Double.MAX_VALUE);
+        this.cotaSuperior = new double[nItems];
+        this.inicios = new MipStarts(instance);
+        this.buildMs = (System.nanoTime() - inicio) / 1_000_000;
+    }
+
+    int nGrupos() {
+        return copias.length;
+    }
+
+    /**
+     * Items asked for by the orders in {@code ordenes}: the stock rows a wave built around them depends on.
+     */
+    static boolean[] itemsDe(ChallengeInstance instance, boolean[] ordenes) {
+        boolean[] items = new boolean[instance.nItems()];
+        for (int o = 0; o < ordenes.length; o++) {
+            if (ordenes[o]) {
+                for (int k = instance.orderStart(o); k < instance.orderEnd(o); k++) {
+                    items[instance.orderItem(k)] = true;
+                }
+            }
+        }
+        return items;
+    }
+
+    /**
+     * Number of stock rows loaded up front.
+     */
+    int nFilasIniciales() {
+        if (filasIniciales == null) {
+            return indices.length;
+        }
+        int n = 0;
+        for (boolean b : filasIniciales) {
+            n += b ? 1 : 0;
+        }
+        return n;
+    }
+
+    /**
+     * Rough heap taken by the row arrays: 12 bytes per nonzero plus the array headers.
+     */
+    long bytes() {
+        return 12 * noCeros + 32L * indices.length;
+    }
+}
@@ -0,0 +1,439 @@
+package org.sbpo2025.challenge;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import ilog.concert.IloException;
+import ilog.concert.IloIntVar;
+import ilog.concert.IloLinearIntExpr;
+import ilog.concert.IloLinearNumExpr;
+import ilog.concert.IloLPMatrix;
+import ilog.concert.IloNumVar;
+import ilog.concert.IloRange;
+import ilog.cplex.IloCplex;
+
+/**
+ * Variables and constraints shared by every formulation: W_o (order o is in the wave), A_a (aisle a is visited),
+ * the wave size range and one stock row per item. Each formulation adds its own objective and extra constraints
+ * on top. Columns and stock rows come from a {@link WaveMatrix} in bulk.
+ * <p>
+ * Aisles with identical stock (see {@link Presolve}) share one integer column counting how many of them are
+ * visited; {@link #incumbente()} hands the count back as the first aisles of the group.
+ * <p>
+ * If the {@link WaveMatrix} loads only some stock rows up front, a lazy-constraint callback checks every candidate
+ * incumbent against the missing rows and cuts off those that lack stock, so incumbents are always feasible. Rows
+ * separated during a solve are loaded into the matrix when the next solve starts, so that later solves start with
+ * them and the solution of the current one can still be read.
+ * <p>
+ * {@link IncrementalSolver} edits a model in place: {@link #agregarOrden} appends a W column and
+ * {@link #cambiarStock} changes one coefficient of a stock row, adding the row first if its item is new.
+ */
+final class WaveModel {
+
+    /** Stock excess of a candidate above which the callback cuts it off. */
+    private static final double TOLERANCIA = 1e-6;
+
+    final IloCplex prob;
+    final ChallengeInstance instance;
+    /** One column per order; grows with {@link #agregarOrden}. */
+    IloIntVar[] listaW;
+    /** One column per group of identical aisles, named after its first aisle. */
+    final IloIntVar[] listaA;
+    /** Group of each aisle, shared with the {@link WaveMatrix}. */
+    private final int[] grupoPasillo;
+    /** Number of aisles of each group, shared with the {@link WaveMatrix}. */
+    private final int[] copias;
+    /** Units picked by the wave. */
+    final IloLinearIntExpr suma;
+    /** LB <= units <= UB. */
+    final IloRange rangoOla;
+    /** Number of visited aisles. */
+    final IloLinearIntExpr sumaDeA;
+    /** Loaded stock rows, one per item, in the order they were loaded. */
+    final IloLPMatrix matriz;
+    /** Stock slack of the binary-search model, null otherwise. */
+    final IloNumVar z;
+    private final WaveMatrix base;
+    /** Row of each item in {@link #matriz}, -1 while it is not loaded. */
+    private int[] filaDeItem;
+    /** Items whose row the callback cut with during the current solve. */
+    private final Set<Integer> separadas = ConcurrentHashMap.newKeySet();
+    private int columnaZ = -1;
+    private int filasSeparadas;
+    private final MipStarts inicios;
+    private final PrimeraIncumbente primeraIncumbente = new PrimeraIncumbente();
+    private final long buildMs;
+    private SolverTelemetry telemetria = SolverTelemetry.DESACTIVADA;
+
+    private WaveModel(IloCplex prob, WaveMatrix base, IloNumVar z) throws IloException {
+        long inicio = System.nanoTime();
+        this.prob = prob;
+        this.instance = base.instance;
+        this.z = z;
+        this.base = base;
+        this.inicios = base.inicios;
+        this.grupoPasillo = base.grupoPasillo;
+        this.copias = base.copias;
+        int nOrdenes = instance.nOrders();
+
+        //If the order is in the wave; if the aisle is used (how many aisles of the group are used)
+        this.listaW = base.nombres
+                ? prob.boolVarArray(nOrdenes, IntStream.range(0, nOrdenes).mapToObj(o -> "W_" + o).toArray(String[]::new))
+                : prob.boolVarArray(nOrdenes);
+        int[] ceros = new int[base.nGrupos()];
+        this.listaA = base.nombres
+                ? prob.intVarArray(ceros.length, ceros, copias, Arrays.stream(base.primerPasillo).mapToObj(a -> "A_" + a).toArray(String[]::new))
+                : prob.intVarArray(ceros.length, ceros, copias);
+
+        //The amount of items which are in the wave is bounded
+        int[] unidades = new int[nOrdenes];
+        for (int o = 0; o < nOrdenes; o++) {
+            unidades[o] = instance.orderUnits(o);
+        }
+        this.suma = prob.scalProd(unidades, listaW);
+        this.rangoOla = prob.addRange(instance.waveSizeLB(), suma, instance.waveSizeUB());
+        int[] unos = new int[listaA.length];
+        Arrays.fill(unos, 1);
+        this.sumaDeA = prob.scalProd(unos, listaA);
+
+        //Every item grabbed from an aisle has stock: sum_o u_oi W_o - sum_a u_ai A_a (- z) <= 0, nonzeros only
+        this.matriz = prob.addLPMatrix();
+        IloNumVar[] columnas = new IloNumVar[nOrdenes + listaA.length];
+        System.arraycopy(listaW, 0, columnas, 0, nOrdenes);
+        System.arraycopy(listaA, 0, columnas, nOrdenes, listaA.length);
+        matriz.addCols(columnas);
+        if (z != null) {
+            this.columnaZ = matriz.addCols(new IloNumVar[]{z});
+        }
+        this.filaDeItem = new int[base.indices.length];
+        Arrays.fill(filaDeItem, -1);
+        boolean[] iniciales = base.filasIniciales;
+        cargarFilas(IntStream.range(0, filaDeItem.length).filter(i -> iniciales == null || iniciales[i]).toArray());
+        if (iniciales != null) {
+            prob.use(new SeparadorStock(columnas));
+        }
+        prob.use(primeraIncumbente);
+        this.buildMs = (System.nanoTime() - inicio) / 1_000_000;
+    }
+
+    static WaveModel build(IloCplex prob, WaveMatrix base) throws IloException {
+        return new WaveModel(prob, base, null);
+    }
+
+    /**
+     * Same model with a slack {@code z} added to the right-hand side of every stock row.
+     */
+    static WaveModel buildWithSlack(IloCplex prob, WaveMatrix base, IloNumVar z) throws IloException {
+        return new WaveModel(prob, base, z);
+    }
+
+    /**
+     * Appends the stock rows of {@code items} to the matrix.
+     */
+    private void cargarFilas(int[] items) throws IloException {
+        if (items.length == 0) {
+            return;
+        }
+        int[][] ind = new int[items.length][];
+        double[][] val = new double[items.length][];
+        double[] lb = new double[items.length];
+        double[] ub = new double[items.length];
+        for (int k = 0; k < items.length; k++) {
+            ind[k] = base.indices[items[k]];
+            val[k] = base.valores[items[k]];
+            lb[k] = base.cotaInferior[items[k]];
+            ub[k] = base.cotaSuperior[items[k]];
+        }
+        int primera = matriz.addRows(lb, ub, ind, val);
+        for (int k = 0; k < items.length; k++) {
+            filaDeItem[items[k]] = primera + k;
+        }
+        if (z != null) {
+            int[] filas = IntStream.range(primera, primera + items.length).toArray();
+            int[] enZ = new int[filas.length];
+            Arrays.fill(enZ, columnaZ);
+            double[] menosUno = new double[filas.length];
+            Arrays.fill(menosUno, -1);
+            matriz.setNZs(filas, enZ, menosUno);
+        }
+    }
+
+    /**
+     * Row of {@code item} in the matrix, loading it first if it is not there yet; an item the instance does not have
+     * gets an empty row.
+     */
+    private int fila(int item) throws IloException {
+        if (item >= filaDeItem.length) {
+            int antes = filaDeItem.length;
+            filaDeItem = Arrays.copyOf(filaDeItem, Math.max(item + 1, 2 * antes));
+            Arrays.fill(filaDeItem, antes, filaDeItem.length, -1);
+        }
+        if (filaDeItem[item] < 0) {
+            if (item < base.indices.length) {
+                cargarFilas(new int[]{item});
+            } else {
+                filaDeItem[item] = matriz.addRow(-Double.MAX_VALUE, 0, new int[0], new double[0]);
+                if (z != null) {
+                    matriz.setNZ(filaDeItem[item], columnaZ, -1);
+                }
+            }
+        }
+        return filaDeItem[item];
+    }
+
+    /**
+     * Appends a W column for an order asking {@code cantidades[k]} units of {@code items[k]}, and returns its index
+     * in {@link #listaW}. The caller sets its coefficients in the objective.
+     */
+    int agregarOrden(int[] items, int[] cantidades) throws IloException {
+        int o = listaW.length;
+        IloIntVar w = base.nombres ? prob.boolVar("W_" + o) : prob.boolVar();
+        int[] filas = new int[items.length];
+        double[] valores = new double[items.length];
+        int unidades = 0;
+        for (int k = 0; k < items.length; k++) {
+            filas[k] = fila(items[k]);
+            valores[k] = cantidades[k];
+            unidades += cantidades[k];
+        }
+        matriz.addColumn(w, filas, valores);
+        prob.setLinearCoef(rangoOla, unidades, w);
+        suma.addTerm(unidades, w);
+        listaW = Arrays.copyOf(listaW, o + 1);
+        listaW[o] = w;
+        return o;
+    }
+
+    /**
+     * Sets the units of {@code item} in {@code pasillo}. Needs one column per aisle, i.e. a matrix built without
+     * aisle groups.
+     */
+    void cambiarStock(int pasillo, int item, int cantidad) throws IloException {
+        int g = grupoPasillo[pasillo];
+        if (copias[g] > 1) {
+            throw new IllegalStateException("Aisle " + pasillo + " shares its column with identical aisles");
+        }
+        matriz.setNZ(fila(item), instance.nOrders() + g, -cantidad);
+    }
+
+    /**
+     * Reports the model and its solves to {@code telemetria}.
+     */
+    WaveModel conTelemetria(SolverTelemetry telemetria) {
+        this.telemetria = telemetria;
+        if (telemetria.activa()) {
+            telemetria.modelo(prob.getNrows(), prob.getNcols(), prob.getNNZs(), buildMs);
+        }
+        return this;
+    }
+
+    MipStarts inicios() {
+        return inicios;
+    }
+
+    /**
+     * Replaces the MIP starts of the model with {@code inicio} ({W, A}). The slack, if any, is set to the largest
+     * stock deficit so that the start is complete.
+     */
+    void agregarMipStart(boolean[][] inicio, IloCplex.MIPStartEffort esfuerzo) throws IloException {
+        if (prob.getNMIPStarts() > 0) {
+            prob.deleteMIPStarts(0, prob.getNMIPStarts());
+        }
+        int n = listaW.length + listaA.length + (z == null ? 0 : 1);
+        IloNumVar[] vars = new IloNumVar[n];
+        double[] vals = new double[n];
+        System.arraycopy(listaW, 0, vars, 0, listaW.length);
+        // Orders appended after the start was built are left out of it
+        System.arraycopy(MipStarts.comoValores(inicio[0]), 0, vals, 0, Math.min(inicio[0].length, listaW.length));
+        System.arraycopy(listaA, 0, vars, listaW.length, listaA.length);
+        for (int a = 0; a < inicio[1].length; a++) {
+            if (inicio[1][a]) {
+                vals[listaW.length + grupoPasillo[a]]++;
+            }
+        }
+        if (z != null) {
+            vars[n - 1] = z;
+            vals[n - 1] = inicios.deficitMaximo(inicio[0], inicio[1]);
+        }
+        prob.addMIPStart(vars, vals, esfuerzo);
+    }
+
+    /**
+     * Fixes every order and aisle that is not free to its value in {@code ola} ({W, A}) and frees the rest, so that
+     * the next solve only searches the neighborhood. An aisle group is free if any of its aisles is. Only bounds that
+     * change are sent to CPLEX.
+     */
+    void fijar(boolean[][] ola, boolean[] ordenLibre, boolean[] pasilloLibre) throws IloException {
+        for (int o = 0; o < listaW.length; o++) {
+            int valor = ola[0][o] ? 1 : 0;
+            acotar(listaW[o], ordenLibre[o] ? 0 : valor, ordenLibre[o] ? 1 : valor);
+        }
+        int[] usados = new int[listaA.length];
+        boolean[] libre = new boolean[listaA.length];
+        for (int a = 0; a < grupoPasillo.length; a++) {
+            usados[grupoPasillo[a]] += ola[1][a] ? 1 : 0;
+            libre[grupoPasillo[a]] |= pasilloLibre[a];
+        }
+        for (int g = 0; g < listaA.length; g++) {
+            acotar(listaA[g], libre[g] ? 0 : usados[g], libre[g] ? copias[g] : usados[g]);
+        }
+    }
+
+    private static void acotar(IloIntVar x, int lb, int ub) throws IloException {
+        if (x.getLB() != lb || x.getUB() != ub) {
+            // Widen before narrowing so that LB <= UB holds at every step
+            x.setLB(Math.min(lb, x.getLB()));
+            x.setUB(ub);
+            x.setLB(lb);
+        }
+    }
+
+    /**
+     * Solves the model within a slice of {@code presupuesto} and reports the solve to the telemetry.
+     *
+     * @param solvesRestantes solves still expected, this one included, see {@link TimeBudget#porcionMs(int)}
+     */
+    boolean resolver(String etiqueta, TimeBudget presupuesto, int solvesRestantes) throws IloException {
+        // Rows separated by the previous solve go in now: changing the model discards its solution, which the
+        // caller has read by now
+        if (!separadas.isEmpty()) {
+            int[] items = separadas.stream().mapToInt(Integer::intValue).filter(i -> filaDeItem[i] < 0).sorted().toArray();
+            separadas.clear();
+            cargarFilas(items);
+            filasSeparadas += items.length;
+            telemetria.mensaje("%s: %d filas de stock separadas en el solve anterior, %d de %d cargadas", etiqueta, items.length,
+                    matriz.getNrows(), filaDeItem.length);
+        }
+        presupuesto.limitar(prob, solvesRestantes);
+        primeraIncumbente.reiniciar();
+        long t0 = System.nanoTime();
+        boolean resuelto = prob.solve();
+        long totalMs = (System.nanoTime() - t0) / 1_000_000;
+        presupuesto.registrar(totalMs);
+        if (telemetria.activa()) {
+            double pasillos = resuelto ? prob.getValue(sumaDeA) : 0;
+            telemetria.solve(etiqueta, prob.getNrows(), prob.getNcols(), prob.getNNZs(), totalMs,
+                    primeraIncumbente.segundos < 0 ? -1 : Math.round(primeraIncumbente.segundos * 1000),
+                    prob.getStatus().toString(), resuelto ? prob.getMIPRelativeGap() : Double.NaN,
+                    prob.getNnodes64(), pasillos > 0 ? prob.getValue(suma) / pasillos : Double.NaN);
+        }
+        return resuelto;
+    }
+
+    /**
+     * Reads the incumbent of the last solve as {W, A}.
+     */
+    boolean[][] incumbente() throws IloException {
+        double[] columnas = prob.getValues(listaA);
+        int[] restantes = new int[columnas.length];
+        for (int g = 0; g < columnas.length; g++) {
+            restantes[g] = (int) Math.round(columnas[g]);
+        }
+        boolean[] pasillos = new boolean[grupoPasillo.length];
+        for (int a = 0; a < pasillos.length; a++) {
+            if (restantes[grupoPasillo[a]] > 0) {
+                restantes[grupoPasillo[a]]--;
+                pasillos[a] = true;
+            }
+        }
+        return new boolean[][]{redondear(prob.getValues(listaW)), pasillos};
+    }
+
+    /**
+     * Reads the incumbent of the last solve as [W values, A values].
+     */
+    List<List<Boolean>> valores() throws IloException {
+        return comoListas(incumbente());
+    }
+
+    static List<List<Boolean>> comoListas(boolean[][] solucion) {
+        List<List<Boolean>> res = new ArrayList<>();
+        for (boolean[] x : solucion) {
+            List<Boolean> lista = new ArrayList<>(x.length);
+            for (boolean b : x) {
+                lista.add(b);
+            }
+            res.add(lista);
+        }
+        return res;
+    }
+
+    private static boolean[] redondear(double[] valores) {
+        boolean[] res = new boolean[valores.length];
+        for (int k = 0; k < valores.length; k++) {
+            res[k] = valores[k] >= 0.5;
+        }
+        return res;
+    }
+
+    /**
+     * Stock rows separated by the callback so far, all solves included.
+     */
+    int filasSeparadas() {
+        return filasSeparadas + (int) separadas.stream().filter(i -> filaDeItem[i] < 0).count();
+    }
+
+    /**
+     * Checks a candidate incumbent against the stock rows that are not loaded and adds the violated ones as lazy
+     * constraints. Rows are only read here: the matrix grows before the next solve, in {@link #resolver}.
+     */
+    private final class SeparadorStock extends IloCplex.LazyConstraintCallback {
+        private final IloNumVar[] columnas;
+
+        SeparadorStock(IloNumVar[] columnas) {
+            this.columnas = columnas;
+        }
+
+        @Override
+        protected void main() throws IloException {
+            double[] x = getValues(columnas);
+            double holgura = z == null ? 0 : getValue(z);
+            for (int i = 0; i < base.indices.length; i++) {
+                if (filaDeItem[i] >= 0) {
+                    continue;
+                }
+                int[] ind = base.indices[i];
+                double[] val = base.valores[i];
+                double exceso = -holgura;
+                for (int k = 0; k < ind.length; k++) {
+                    exceso += val[k] * x[ind[k]];
+                }
+                if (exceso > TOLERANCIA) {
+                    IloNumVar[] vars = new IloNumVar[ind.length];
+                    for (int k = 0; k < ind.length; k++) {
+                        vars[k] = columnas[ind[k]];
+                    }
+                    IloLinearNumExpr fila = prob.linearNumExpr();
+                    fila.addTerms(val, vars);
+                    if (z != null) {
+                        fila.addTerm(-1, z);
+                    }
+                    add(prob.le(fila, 0));
+                    separadas.add(i);
+                }
+            }
+        }
+    }
+
+    /**
+     * Records when the first incumbent of a solve is found. Informational callbacks do not turn off dynamic search.
+     */
+    private static final class PrimeraIncumbente extends IloCplex.MIPInfoCallback {
+        private volatile double segundos = -1;
+
+        void reiniciar() {
+            segundos = -1;
+        }
+
+        @Override
+        protected void main() throws IloException {
+            if (segundos < 0 && hasIncumbent()) {
+                segundos = getCplexTime() - getStartTime();
+            }
+        }
+    }
+}
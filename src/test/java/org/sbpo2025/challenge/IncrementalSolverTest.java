@@ -0,0 +1,90 @@
+package org.sbpo2025.challenge;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+
+import ilog.concert.IloException;
+import ilog.cplex.IloCplex;
+
+/**
+ * Deltas applied to an {@link IncrementalSolver}, each followed by a re-solve whose wave is checked against the
+ * backlog after the delta. The solves need CPLEX and are skipped without it.
+ */
+class IncrementalSolverTest {
+
+    private static final long LIMITE_MS = 10_000;
+    /** Well under the 1 s floor of a run budget. */
+    private static final long LIMITE_CORTO_MS = 300;
+
+    private static ChallengeInstance instancia() throws IOException {
+        return InstanceParser.parse(Path.of("datasets", "a", "instance_0001.txt"));
+    }
+
+    private static boolean hayCplex() {
+        try {
+            new IloCplex().end();
+            return true;
+        } catch (IloException | UnsatisfiedLinkError | NoClassDefFoundError e) {
+            return false;
+        }
+    }
+
+    @Test
+    void reoptimizaTrasCadaCambio() throws IOException, IloException {
+        assumeTrue(hayCplex(), "CPLEX no disponible");
+        ChallengeInstance instance = instancia();
+        try (IncrementalSolver solver = new IncrementalSolver(instance, new SolverOptions())) {
+            ChallengeSolution primera = solver.solve(LIMITE_MS);
+            assertFactible(solver, primera);
+
+            int quitada = primera.orders().iterator().next();
+            solver.removeOrder(quitada);
+            ChallengeSolution sinOrden = solver.solve(LIMITE_MS);
+            assertFactible(solver, sinOrden);
+            assertFalse(sinOrden.orders().contains(quitada), "la orden quitada sigue en la ola");
+
+            int nueva = solver.addOrder(new int[]{instance.orderItem(0), instance.nItems()}, new int[]{1, 2});
+            solver.setAisleStock(0, instance.nItems(), 2);
+            assertFactible(solver, solver.solve(LIMITE_MS));
+            assertEquals(instance.nOrders(), nueva, "los ids de orden no son estables");
+
+            // Half the stock of every item of the visited aisles
+            for (int a : sinOrden.aisles()) {
+                for (int k = instance.aisleStart(a); k < instance.aisleEnd(a); k++) {
+                    solver.setAisleStock(a, instance.aisleItem(k), instance.aisleQuantity(k) / 2);
+                }
+            }
+            ChallengeSolution conMenosStock = solver.solve(LIMITE_MS);
+            assertFactible(solver, conMenosStock);
+            assertFalse(conMenosStock.orders().contains(quitada), "la orden quitada volvio a la ola");
+        }
+    }
+
+    @Test
+    void unLimiteCortoLlegaAlSolver() throws IOException, IloException {
+        TimeBudget presupuesto = TimeBudget.paraReoptimizar(LIMITE_CORTO_MS);
+        assertTrue(presupuesto.hayTiempo(), "sin tiempo para re-optimizar en " + LIMITE_CORTO_MS + " ms");
+        assertTrue(presupuesto.porcionMs(3) > 0, "porcion vacia");
+
+        assumeTrue(hayCplex(), "CPLEX no disponible");
+        ChallengeInstance instance = instancia();
+        try (IncrementalSolver solver = new IncrementalSolver(instance, new SolverOptions())) {
+            assertFactible(solver, solver.solve(LIMITE_MS));
+            solver.removeOrder(solver.getSolution().orders().iterator().next());
+            assertFactible(solver, solver.solve(LIMITE_CORTO_MS));
+        }
+    }
+
+    private static void assertFactible(IncrementalSolver solver, ChallengeSolution solucion) {
+        assertNotNull(solucion, "sin ola");
+        assertTrue(new ChallengeSolver(solver.actual()).isSolutionFeasible(solucion), "ola infactible: " + solucion);
+    }
+}
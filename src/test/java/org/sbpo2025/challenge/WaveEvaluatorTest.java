@@ -0,0 +1,140 @@
+package org.sbpo2025.challenge;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+/**
+ * Random add/remove walks on {@link WaveEvaluator}, checked after every step against {@code isSolutionFeasible} and
+ * {@code computeObjectiveFunction} on the same wave. Free walks are almost never feasible, so other walks start from
+ * heuristic waves and take single steps around them, undoing the ones that leave the feasible waves.
+ */
+class WaveEvaluatorTest {
+
+    private static final long SEED = 2025;
+    private static final int PASOS = 20_000;
+    private static final int REINICIOS = 5;
+    private static final long HEURISTICA_MS = 100;
+    private static final int PASOS_CERCA = 2_000;
+    /** Steps near a heuristic wave that must land on a feasible wave, per walk. */
+    private static final int MINIMO_FACTIBLES = PASOS_CERCA / 4;
+
+    static Stream<Path> instancias() throws IOException {
+        return Files.list(Path.of("datasets", "a")).filter(p -> p.toString().endsWith(".txt")).sorted();
+    }
+
+    @ParameterizedTest
+    @MethodSource("instancias")
+    void coincideConLasComprobacionesCompletas(Path archivo) throws IOException {
+        ChallengeInstance instance = InstanceParser.parse(archivo);
+        ChallengeSolver solver = new ChallengeSolver(instance);
+        WaveEvaluator ola = new WaveEvaluator(instance);
+        Set<Integer> ordenes = new HashSet<>();
+        Set<Integer> pasillos = new HashSet<>();
+        SplittableRandom random = new SplittableRandom(SEED);
+
+        for (int paso = 0; paso < PASOS; paso++) {
+            // Orders are picked more often than aisles, so that waves reach LB
+            if (random.nextInt(4) > 0) {
+                cambiar(ola, ordenes, true, random.nextInt(instance.nOrders()));
+            } else {
+                cambiar(ola, pasillos, false, random.nextInt(instance.nAisles()));
+            }
+            comprobar(solver, ola, ordenes, pasillos, archivo.getFileName() + " paso " + paso);
+        }
+
+        ola.limpiar();
+        assertEquals(0, ola.unidades());
+        assertEquals(0, ola.itemsConDeficit());
+        assertEquals(0.0, ola.ratio());
+    }
+
+    @ParameterizedTest
+    @MethodSource("instancias")
+    void coincideCercaDeOlasHeuristicas(Path archivo) throws IOException {
+        ChallengeInstance instance = InstanceParser.parse(archivo);
+        ChallengeSolver solver = new ChallengeSolver(instance);
+        HeuristicSolver heuristica = new HeuristicSolver(instance, SEED);
+        SplittableRandom random = new SplittableRandom(SEED);
+
+        for (int reinicio = 0; reinicio < REINICIOS; reinicio++) {
+            boolean[][] inicial = heuristica.resolver(HEURISTICA_MS);
+            assertNotNull(inicial, archivo.getFileName() + ": sin ola heuristica");
+            WaveEvaluator ola = new WaveEvaluator(instance);
+            Set<Integer> ordenes = new HashSet<>();
+            Set<Integer> pasillos = new HashSet<>();
+            for (int o = 0; o < inicial[0].length; o++) {
+                if (inicial[0][o]) {
+                    ordenes.add(o);
+                    ola.agregarOrden(o);
+                }
+            }
+            for (int p = 0; p < inicial[1].length; p++) {
+                if (inicial[1][p]) {
+                    pasillos.add(p);
+                    ola.agregarPasillo(p);
+                }
+            }
+            String contexto = archivo.getFileName() + " reinicio " + reinicio;
+            assertTrue(comprobar(solver, ola, ordenes, pasillos, contexto), contexto + ": ola heuristica infactible");
+
+            int factibles = 0;
+            for (int paso = 0; paso < PASOS_CERCA; paso++) {
+                boolean esOrden = random.nextBoolean();
+                int x = esOrden ? random.nextInt(instance.nOrders()) : random.nextInt(instance.nAisles());
+                cambiar(ola, esOrden ? ordenes : pasillos, esOrden, x);
+                if (comprobar(solver, ola, ordenes, pasillos, contexto + " paso " + paso)) {
+                    factibles++;
+                } else {
+                    cambiar(ola, esOrden ? ordenes : pasillos, esOrden, x);
+                    assertTrue(comprobar(solver, ola, ordenes, pasillos, contexto + " deshacer " + paso),
+                            contexto + ": deshacer el paso " + paso + " no vuelve a una ola factible");
+                }
+            }
+            assertTrue(factibles >= MINIMO_FACTIBLES,
+                    contexto + ": solo " + factibles + " pasos a olas factibles de " + PASOS_CERCA);
+        }
+    }
+
+    private static void cambiar(WaveEvaluator ola, Set<Integer> conjunto, boolean esOrden, int x) {
+        if (conjunto.remove(x)) {
+            if (esOrden) {
+                ola.quitarOrden(x);
+            } else {
+                ola.quitarPasillo(x);
+            }
+        } else {
+            conjunto.add(x);
+            if (esOrden) {
+                ola.agregarOrden(x);
+            } else {
+                ola.agregarPasillo(x);
+            }
+        }
+    }
+
+    /**
+     * Checks {@code ola} against the full checks on the same wave and returns whether it is feasible.
+     */
+    private static boolean comprobar(ChallengeSolver solver, WaveEvaluator ola, Set<Integer> ordenes, Set<Integer> pasillos,
+                                     String contexto) {
+        ChallengeSolution solucion = new ChallengeSolution(ordenes, pasillos);
+        boolean factible = solver.isSolutionFeasible(solucion);
+        assertEquals(factible, ola.factible(), contexto);
+        assertEquals(solver.computeObjectiveFunction(solucion), ola.ratio(), 1e-9, contexto);
+        assertEquals(ordenes.size(), ola.nOrdenes(), contexto);
+        assertEquals(pasillos.size(), ola.nPasillos(), contexto);
+        return factible;
+    }
+}
@@ -0,0 +1,73 @@
+package org.sbpo2025.challenge;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import ilog.concert.IloConstraint;
+import ilog.concert.IloException;
+import ilog.cplex.IloCplex;
+
+/**
+ * Solves of a {@link WaveModel} that starts with no stock rows, so that the callback separates them: the solution
+ * of each solve must still be readable afterwards, and feasible. Needs CPLEX and is skipped without it.
+ */
+class WaveModelTest {
+
+    private static final long LIMITE_MS = 30_000;
+    private static final int CONTEOS = 4;
+
+    private static boolean hayCplex() {
+        try {
+            new IloCplex().end();
+            return true;
+        } catch (IloException | UnsatisfiedLinkError | NoClassDefFoundError e) {
+            return false;
+        }
+    }
+
+    @Test
+    void leeCadaSolucionConFilasSeparadas() throws IOException, IloException {
+        assumeTrue(hayCplex(), "CPLEX no disponible");
+        ChallengeInstance instance = InstanceParser.parse(Path.of("datasets", "a", "instance_0001.txt"));
+        ChallengeSolver evaluador = new ChallengeSolver(instance);
+        WaveMatrix base = new WaveMatrix(instance, null, false, new boolean[instance.nItems()]);
+        TimeBudget presupuesto = TimeBudget.paraReoptimizar(LIMITE_MS);
+        IloCplex prob = new IloCplex();
+        try {
+            WaveModel modelo = WaveModel.build(prob, base);
+            prob.addMaximize(modelo.suma);
+            int resueltos = 0;
+            // The aisle counts of the sweep, each with its own solve on the same model
+            for (int aPrima = instance.nAisles(); aPrima > Math.max(0, instance.nAisles() - CONTEOS); aPrima--) {
+                IloConstraint restriccionA = prob.addEq(modelo.sumaDeA, aPrima);
+                if (modelo.resolver("a'=" + aPrima, presupuesto, 1)) {
+                    resueltos++;
+                    double unidades = prob.getObjValue();
+                    boolean[][] ola = modelo.incumbente();
+                    ChallengeSolution solucion = new ChallengeSolution(indices(ola[0]), indices(ola[1]));
+                    assertTrue(evaluador.isSolutionFeasible(solucion), "ola infactible con a'=" + aPrima);
+                    assertEquals(unidades, evaluador.computeObjectiveFunction(solucion) * aPrima, 1e-6,
+                            "objetivo de otra ola con a'=" + aPrima);
+                }
+                prob.remove(restriccionA);
+            }
+            assertTrue(resueltos > 0, "ningun conteo resuelto");
+            assertTrue(modelo.filasSeparadas() > 0, "el callback no separo filas");
+        } finally {
+            prob.end();
+        }
+    }
+
+    private static Set<Integer> indices(boolean[] x) {
+        return IntStream.range(0, x.length).filter(k -> x[k]).boxed().collect(Collectors.toSet());
+    }
+}